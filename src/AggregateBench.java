@@ -0,0 +1,95 @@
+/**
+ * @file: AggregateBench.java
+ * @description: This program measures subtree aggregates on an AVL Tree of n synthetic Pokemon. It answers
+ *               "max speed, sum of total and count of legendaries among names between lo and hi" for ranges
+ *               covering a growing share of the tree, once by scanning the range and once from the cached
+ *               aggregates, and reports what keeping the aggregates costs inserts.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class AggregateBench {
+    private static final TreeAggregate<Pokemon> MAX_SPEED = TreeAggregate.max(Pokemon::getSpeed);
+    private static final TreeAggregate<Pokemon> SUM_TOTAL = TreeAggregate.sum(Pokemon::getTotal);
+    private static final TreeAggregate<Pokemon> LEGENDARIES = TreeAggregate.count(Pokemon::getIsLegendary);
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Pokemon[] data = new PokemonGenerator(42, PokemonGenerator.Distribution.RANDOM, 10).generate(n);
+
+        AvlTree<Pokemon> plain = new AvlTree<>();
+        long start = System.nanoTime();
+        for (Pokemon pokemon : data) {
+            plain.insert(pokemon);
+        }
+        double plainInsert = (double) (System.nanoTime() - start) / n;
+
+        AvlTree<Pokemon> tree = new AvlTree<>();
+        tree.addAggregate(MAX_SPEED);
+        tree.addAggregate(SUM_TOTAL);
+        tree.addAggregate(LEGENDARIES);
+        start = System.nanoTime();
+        for (Pokemon pokemon : data) {
+            tree.insert(pokemon);
+        }
+        double aggregateInsert = (double) (System.nanoTime() - start) / n;
+
+        Pokemon[] sorted = data.clone();
+        Arrays.sort(sorted);
+
+        System.out.println("\nRange statistics over " + n + " records (max speed, sum of total, legendaries):");
+        System.out.println("-----------------------------------------------------------");
+        System.out.printf("insert ns/op: %.1f plain, %.1f with 3 aggregates%n", plainInsert, aggregateInsert);
+        System.out.printf("%10s %14s %14s %10s%n", "range %", "scan us/query", "agg us/query", "speedup");
+        for (double share : new double[] {0.0001, 0.001, 0.01, 0.1, 1.0}) {
+            int width = Math.max(1, (int) (share * n));
+            SplittableRandom random = new SplittableRandom(11);
+            Pokemon[] lo = new Pokemon[queries];
+            Pokemon[] hi = new Pokemon[queries];
+            for (int q = 0; q < queries; q++) {
+                int first = random.nextInt(n - width + 1);
+                lo[q] = sorted[first];
+                hi[q] = sorted[first + width - 1];
+            }
+
+            long checksum = 0;
+            start = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                checksum += scan(tree, lo[q], hi[q]);
+            }
+            double scanMicros = (System.nanoTime() - start) / 1e3 / queries;
+
+            start = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                checksum -= tree.aggregate(MAX_SPEED, lo[q], hi[q]) + tree.aggregate(SUM_TOTAL, lo[q], hi[q])
+                        + tree.aggregate(LEGENDARIES, lo[q], hi[q]);
+            }
+            double aggregateMicros = (System.nanoTime() - start) / 1e3 / queries;
+            if (checksum != 0) {
+                throw new IllegalStateException("aggregates disagree with the scan");
+            }
+            System.out.printf("%10.2f %14.2f %14.2f %9.0fx%n", share * 100, scanMicros, aggregateMicros,
+                    scanMicros / aggregateMicros);
+        }
+        System.out.println("-----------------------------------------------------------\n");
+    }
+
+    // The same three statistics by visiting every record in range
+    private static long scan(AvlTree<Pokemon> tree, Pokemon lo, Pokemon hi) {
+        long maxSpeed = Long.MIN_VALUE;
+        long sumTotal = 0;
+        long legendaries = 0;
+        for (Pokemon pokemon : tree.range(lo, hi, Integer.MAX_VALUE)) {
+            maxSpeed = Math.max(maxSpeed, pokemon.getSpeed());
+            sumTotal += pokemon.getTotal();
+            if (pokemon.getIsLegendary()) {
+                legendaries++;
+            }
+        }
+        return maxSpeed + sumTotal + legendaries;
+    }
+}
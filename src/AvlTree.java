@@ -5,7 +5,13 @@
  * @date: October 22, 2024
  */
 
-public class AvlTree<AnyType extends Comparable<? super AnyType>> {
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class AvlTree<AnyType extends Comparable<? super AnyType>> implements Iterable<AnyType> {
     /**
      * Construct the tree.
      */
@@ -19,6 +25,51 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
      */
     public void insert(AnyType x) {
         root = insert(x, root);
+        if (filter != null) {
+            filter.add(x);
+            if (filter.needsRebuild()) {
+                rebuildFilter();
+            }
+        }
+    }
+
+    /**
+     * Get the number of items in the tree.
+     * @return the number of items.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the height of the tree.
+     * @return the height, or -1 if empty.
+     */
+    public int height() {
+        return height(root);
+    }
+
+    /**
+     * Take a snapshot of the hot-path counters; they only move when run with -Dtree.metrics=true.
+     * @return the counters together with the current height and size.
+     */
+    public TreeMetrics.Snapshot metricsSnapshot() {
+        return metrics.snapshot(height(), size);
+    }
+
+    /**
+     * Clear the hot-path counters.
+     */
+    public void resetMetrics() {
+        metrics.reset();
+    }
+
+    /**
+     * Publish this tree's counters over JMX.
+     * @param name the name the tree is published under.
+     */
+    public void registerMetricsMBean(String name) {
+        TreeMetrics.register(name, metrics, this::metricsSnapshot);
     }
 
     /**
@@ -26,7 +77,100 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
      * @param x the item to remove.
      */
     public void remove(AnyType x) {
-        root = remove(x, root);
+        int before = size;
+        if (lazyDeletion) {
+            markDeleted(x);
+        } else {
+            root = remove(x, root);
+        }
+        if (filter != null && size < before) {
+            filter.recordRemoval();
+            if (filter.needsRebuild()) {
+                rebuildFilter();
+            }
+        }
+        if (lazyDeletion && tombstones > maxDeadFraction * (size + tombstones)) {
+            compact();
+        }
+    }
+
+    /**
+     * Switch remove to lazy deletion: the node is only marked as a tombstone, which costs one descent and
+     * no rebalancing, and every query skips tombstones. Once tombstones make up more than maxDeadFraction of
+     * the nodes, the tree is compacted: rebuilt from its live nodes in linear time, perfectly balanced.
+     * Inserting an item equal to a tombstone revives the node in place.
+     * @param maxDeadFraction the share of tombstones, between 0 and 1, that triggers compaction.
+     */
+    public void enableLazyDeletion(double maxDeadFraction) {
+        if (!(maxDeadFraction > 0 && maxDeadFraction < 1)) {
+            throw new IllegalArgumentException("Dead fraction must be between 0 and 1: " + maxDeadFraction);
+        }
+        lazyDeletion = true;
+        this.maxDeadFraction = maxDeadFraction;
+    }
+
+    /**
+     * Go back to removing nodes immediately, compacting away any tombstones first.
+     */
+    public void disableLazyDeletion() {
+        compact();
+        lazyDeletion = false;
+    }
+
+    /**
+     * Get the number of removed items still occupying a node.
+     * @return the number of tombstones; always 0 unless lazy deletion is on.
+     */
+    public int tombstoneCount() {
+        return tombstones;
+    }
+
+    /**
+     * Rebuild the tree from its live nodes, dropping every tombstone, in O(n) time. The nodes are relinked
+     * rather than copied, so nothing is allocated beyond a list of the live nodes.
+     */
+    public void compact() {
+        if (tombstones == 0) {
+            return;
+        }
+        ArrayList<AvlNode<AnyType>> live = new ArrayList<>(size);
+        collectLive(root, live);
+        root = relink(live, 0, live.size() - 1);
+        tombstones = 0;
+    }
+
+    /**
+     * Keep a Bloom filter alongside the tree so that contains can reject most absent items without
+     * descending the tree. Requires hashCode to agree with compareTo. The filter is rebuilt from the tree
+     * whenever growth or removals would push its false-positive rate well past the target.
+     * @param falsePositiveRate the target fraction of absent items that still need a tree search.
+     */
+    public void enableBloomFilter(double falsePositiveRate) {
+        filterRate = falsePositiveRate;
+        rebuildFilter();
+    }
+
+    /**
+     * Drop the Bloom filter; contains goes back to always searching the tree.
+     */
+    public void disableBloomFilter() {
+        filter = null;
+    }
+
+    /**
+     * Get the memory used by the Bloom filter.
+     * @return the filter's size in bytes, or 0 if there is no filter.
+     */
+    public long bloomFilterBytes() {
+        return filter == null ? 0 : filter.sizeInBytes();
+    }
+
+    /**
+     * Get the false-positive rate the Bloom filter's current fill implies.
+     * @return the estimated rate, or 1 if there is no filter.
+     */
+    public double bloomFilterFalsePositiveRate() {
+        return filter == null ? 1.0 : filter.estimatedFalsePositiveRate();
     }
 
     /**
@@ -40,7 +184,7 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
             return t; // Item not found; do nothing
         }
 
-        int compareResult = x.compareTo(t.element);
+        int compareResult = compare(x, t.element);
 
         if (compareResult < 0) {
             t.left = remove(x, t.left);
@@ -51,6 +195,7 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
             t.right = remove(t.element, t.right);
         } else {
             t = (t.left != null) ? t.left : t.right;
+            size--;
         }
 
         return balance(t);
@@ -64,7 +209,7 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
         if (isEmpty()) {
             throw new UnderflowException();
         }
-        return findMin(root).element;
+        return tombstones == 0 ? findMin(root).element : findMinLive(root).element;
     }
 
     /**
@@ -75,7 +220,7 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
         if (isEmpty()) {
             throw new UnderflowException();
         }
-        return findMax(root).element;
+        return tombstones == 0 ? findMax(root).element : findMaxLive(root).element;
     }
 
     /**
@@ -84,7 +229,207 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
      * @return true if x is found.
      */
     public boolean contains(AnyType x) {
-        return contains(x, root);
+        if (filter != null && !filter.mightContain(x)) {
+            return false; // Definitely absent
+        }
+        boolean found = contains(x, root);
+        if (TreeMetrics.ENABLED) {
+            metrics.endLookup();
+        }
+        return found;
+    }
+
+    /**
+     * Find the stored item equal to x. Unlike contains, this returns the tree's own copy, which may carry more
+     * than the fields compareTo looks at. Like range, this writes nothing, not even the metrics counters,
+     * so any number of threads may call find and range at once while no thread changes the tree.
+     * @param x the item to search for.
+     * @return the matching item, or null if x is not found.
+     */
+    public AnyType find(AnyType x) {
+        if (filter != null && !filter.mightContain(x)) {
+            return null;
+        }
+        AvlNode<AnyType> t = root;
+        while (t != null) {
+            int compareResult = x.compareTo(t.element); // Uncounted: see above
+            if (compareResult < 0) {
+                t = t.left;
+            } else if (compareResult > 0) {
+                t = t.right;
+            } else {
+                return t.deleted ? null : t.element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Collect the items between two bounds in ascending order. Only the subtrees that overlap the range are
+     * visited, so this costs O(log n + k) for k results. Like find, this writes nothing, not even the
+     * metrics counters, so it is safe to run concurrently with other finds and ranges.
+     * @param lo the lowest item to include, or null for no lower bound.
+     * @param hi the highest item to include, or null for no upper bound.
+     * @param limit the most items to return.
+     * @return the items x with lo <= x <= hi, at most limit of them.
+     */
+    public List<AnyType> range(AnyType lo, AnyType hi, int limit) {
+        List<AnyType> out = new ArrayList<>();
+        if (limit > 0) {
+            range(lo, hi, limit, root, out);
+        }
+        return out;
+    }
+
+    /**
+     * Replace the stored item equal to x with x itself, in place. The tree's shape is unchanged, but x may
+     * differ from the old item in fields compareTo ignores, so cached aggregates on its path are recomputed.
+     * @param x the new version of the item.
+     * @return true if an item equal to x was found and replaced; false, with nothing changed, otherwise.
+     */
+    public boolean replace(AnyType x) {
+        AvlNode<AnyType>[] path = aggregates == null ? null : newPath();
+        int depth = 0;
+        AvlNode<AnyType> t = root;
+        while (t != null) {
+            if (path != null) {
+                path[depth++] = t;
+            }
+            int compareResult = compare(x, t.element);
+            if (compareResult < 0) {
+                t = t.left;
+            } else if (compareResult > 0) {
+                t = t.right;
+            } else {
+                if (t.deleted) {
+                    return false;
+                }
+                t.element = x;
+                while (depth > 0) {
+                    updateAggregates(path[--depth]);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keep a statistic for every subtree, maintained through inserts, removes and rotations, so that range
+     * queries on it cost O(log n). Registering costs one O(n) pass; afterwards every node carries one long
+     * per registered aggregate. Nodes only have room for aggregates once the first one is added, which
+     * copies the tree into such nodes, so a tree that never uses aggregates pays nothing for them.
+     * @param aggregate the statistic to keep.
+     */
+    public void addAggregate(TreeAggregate<? super AnyType> aggregate) {
+        if (aggregates == null) {
+            aggregates = new ArrayList<>();
+            root = copyToAggNodes(root);
+        }
+        if (!aggregates.contains(aggregate)) {
+            aggregates.add(aggregate);
+            updateAggregatesBelow(root);
+        }
+    }
+
+    /**
+     * Compute a registered statistic over the items between two bounds. Only the O(log n) nodes on the
+     * paths to the bounds are visited; every subtree hanging off those paths inside the range contributes
+     * its cached value.
+     * @param aggregate a statistic passed to addAggregate.
+     * @param lo the lowest item to include, or null for no lower bound.
+     * @param hi the highest item to include, or null for no upper bound.
+     * @return the statistic over the items x with lo <= x <= hi.
+     */
+    public long aggregate(TreeAggregate<? super AnyType> aggregate, AnyType lo, AnyType hi) {
+        int index = aggregates == null ? -1 : aggregates.indexOf(aggregate);
+        if (index < 0) {
+            throw new IllegalArgumentException("Aggregate was not added to this tree");
+        }
+        return aggregate(aggregate, index, lo, hi, root);
+    }
+
+    /**
+     * Find a batch of items given in ascending order. Instead of restarting at the root, each search resumes
+     * from the path of the previous one (a finger), at the deepest node whose subtree can still hold the key,
+     * so k sorted keys cost O(k log(n/k)) comparisons rather than O(k log n). Keys out of order are still
+     * answered correctly; the finger just restarts at the root for them.
+     * @param keys the items to search for, in ascending order.
+     * @return found[i] is true if keys.get(i) is in the tree.
+     */
+    public boolean[] containsSorted(List<? extends AnyType> keys) {
+        boolean[] found = new boolean[keys.size()];
+        if (root == null) {
+            return found;
+        }
+
+        // path[0..depth] is the search path to the last key; upper[i] bounds path[i]'s subtree from above
+        AvlNode<AnyType>[] path = newPath();
+        AvlNode<AnyType>[] upper = newPath();
+        path[0] = root;
+        int depth = 0;
+        AnyType previous = null;
+
+        for (int i = 0; i < keys.size(); i++) {
+            AnyType x = keys.get(i);
+            if (previous != null && compare(x, previous) < 0) {
+                depth = 0; // Out of order; restart at the root
+            }
+            previous = x;
+
+            // Climb to the deepest node on the path whose subtree still covers x. The bounds only tighten
+            // going down the path, so binary search finds it in O(log log n) comparisons
+            int lo = 0;
+            int hi = depth;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (upper[mid] == null || compare(x, upper[mid].element) < 0) {
+                    lo = mid;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            depth = lo;
+
+            // Descend from there as contains would
+            AvlNode<AnyType> t = path[depth];
+            while (true) {
+                if (TreeMetrics.ENABLED) {
+                    metrics.recordVisit();
+                }
+                int compareResult = compare(x, t.element);
+                if (compareResult == 0) {
+                    found[i] = !t.deleted; // Match found, unless it is a tombstone
+                    break;
+                }
+                AvlNode<AnyType> child = compareResult < 0 ? t.left : t.right;
+                if (child == null) {
+                    break;
+                }
+                upper[depth + 1] = compareResult < 0 ? t : upper[depth];
+                path[++depth] = child;
+                t = child;
+            }
+            if (TreeMetrics.ENABLED) {
+                metrics.endLookup();
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Insert a batch of items given in ascending order; duplicates are ignored. A batch of at least a quarter
+     * of the tree's size is merged with an in-order walk of the tree and the tree rebuilt perfectly balanced
+     * in O(n + k); a smaller batch is inserted one item at a time in O(k log n), which is cheaper than
+     * reallocating every node. Keys out of order are inserted one at a time.
+     * @param keys the items to insert, in ascending order.
+     */
+    public void insertSorted(List<? extends AnyType> keys) {
+        if (4L * keys.size() < size || !mergeAndRebuild(keys)) {
+            for (AnyType x : keys) {
+                insert(x);
+            }
+        }
     }
 
     /**
@@ -92,6 +437,11 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
      */
     public void makeEmpty() {
         root = null;
+        size = 0;
+        tombstones = 0;
+        if (filter != null) {
+            filter.clear();
+        }
     }
 
     /**
@@ -99,7 +449,7 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
      * @return true if empty, false otherwise.
      */
     public boolean isEmpty() {
-        return root == null;
+        return size == 0;
     }
 
     /**
@@ -113,6 +463,15 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
         }
     }
 
+    /**
+     * Get an iterator over the items in sorted order.
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<AnyType> iterator() {
+        return new AvlIterator(root);
+    }
+
     private static final int ALLOWED_IMBALANCE = 1;
 
     // Assume t is either balanced or within one of being balanced
@@ -123,19 +482,32 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
 
         if (height(t.left) - height(t.right) > ALLOWED_IMBALANCE) {
             if (height(t.left.left) >= height(t.left.right)) {
+                if (TreeMetrics.ENABLED) {
+                    metrics.recordSingleRotation();
+                }
                 t = rotateWithLeftChild(t);
             } else {
+                if (TreeMetrics.ENABLED) {
+                    metrics.recordDoubleRotation();
+                }
                 t = doubleWithLeftChild(t);
             }
         } else if (height(t.right) - height(t.left) > ALLOWED_IMBALANCE) {
             if (height(t.right.right) >= height(t.right.left)) {
+                if (TreeMetrics.ENABLED) {
+                    metrics.recordSingleRotation();
+                }
                 t = rotateWithRightChild(t);
             } else {
+                if (TreeMetrics.ENABLED) {
+                    metrics.recordDoubleRotation();
+                }
                 t = doubleWithRightChild(t);
             }
         }
 
         t.height = Math.max(height(t.left), height(t.right)) + 1;
+        updateAggregates(t);
         return t;
     }
 
@@ -168,15 +540,26 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
      */
     private AvlNode<AnyType> insert(AnyType x, AvlNode<AnyType> t) {
         if (t == null) {
-            return new AvlNode<>(x);
+            size++;
+            AvlNode<AnyType> leaf = newNode(x, null, null);
+            updateAggregates(leaf);
+            return leaf;
         }
 
-        int compareResult = x.compareTo(t.element);
+        int compareResult = compare(x, t.element);
 
         if (compareResult < 0) {
             t.left = insert(x, t.left);
         } else if (compareResult > 0) {
             t.right = insert(x, t.right);
+        } else if (t.deleted) {
+            // Revive the tombstone with the new item; the shape does not change
+            t.element = x;
+            t.deleted = false;
+            tombstones--;
+            size++;
+            updateAggregates(t);
+            return t;
         } else {
             // Duplicate; do nothing
         }
@@ -212,6 +595,69 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
         return findMax(t.right);
     }
 
+    /**
+     * Internal method to find the smallest live item in a subtree, skipping tombstones.
+     * @param t the node that roots the tree.
+     * @return node containing the smallest live item, or null if there is none.
+     */
+    private AvlNode<AnyType> findMinLive(AvlNode<AnyType> t) {
+        if (t == null) {
+            return null;
+        }
+        AvlNode<AnyType> min = findMinLive(t.left);
+        if (min != null) {
+            return min;
+        }
+        return t.deleted ? findMinLive(t.right) : t;
+    }
+
+    /**
+     * Internal method to find the largest live item in a subtree, skipping tombstones.
+     * @param t the node that roots the tree.
+     * @return node containing the largest live item, or null if there is none.
+     */
+    private AvlNode<AnyType> findMaxLive(AvlNode<AnyType> t) {
+        if (t == null) {
+            return null;
+        }
+        AvlNode<AnyType> max = findMaxLive(t.right);
+        if (max != null) {
+            return max;
+        }
+        return t.deleted ? findMaxLive(t.left) : t;
+    }
+
+    /**
+     * Internal method to mark an item's node as a tombstone, leaving the tree's shape alone.
+     * @param x the item to remove.
+     */
+    private void markDeleted(AnyType x) {
+        AvlNode<AnyType>[] path = aggregates == null ? null : newPath();
+        int depth = 0;
+        AvlNode<AnyType> t = root;
+        while (t != null) {
+            if (path != null) {
+                path[depth++] = t;
+            }
+            int compareResult = compare(x, t.element);
+            if (compareResult < 0) {
+                t = t.left;
+            } else if (compareResult > 0) {
+                t = t.right;
+            } else {
+                if (!t.deleted) {
+                    t.deleted = true; // The item stays: it still routes searches through this node
+                    tombstones++;
+                    size--;
+                    while (depth > 0) {
+                        updateAggregates(path[--depth]); // The tombstone no longer counts
+                    }
+                }
+                return;
+            }
+        }
+    }
+
     /**
      * Internal method to find an item in a subtree.
      * @param x is item to search for.
@@ -222,16 +668,243 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
         if (t == null) {
             return false;
         }
+        if (TreeMetrics.ENABLED) {
+            metrics.recordVisit();
+        }
 
-        int compareResult = x.compareTo(t.element);
+        int compareResult = compare(x, t.element);
 
         if (compareResult < 0) {
             return contains(x, t.left);
         } else if (compareResult > 0) {
             return contains(x, t.right);
         } else {
-            return true; // Match found
+            return !t.deleted; // Match found, unless it is a tombstone
+        }
+    }
+
+    /**
+     * Internal method to collect the items of a subtree that fall in a range, stopping at limit.
+     * @return false once limit items have been collected.
+     */
+    private boolean range(AnyType lo, AnyType hi, int limit, AvlNode<AnyType> t, List<AnyType> out) {
+        if (t == null) {
+            return true;
+        }
+        boolean aboveLo = lo == null || lo.compareTo(t.element) <= 0; // Uncounted, as in find
+        boolean belowHi = hi == null || t.element.compareTo(hi) <= 0;
+        if (aboveLo && !range(lo, hi, limit, t.left, out)) {
+            return false;
+        }
+        if (aboveLo && belowHi && !t.deleted) {
+            out.add(t.element);
+            if (out.size() >= limit) {
+                return false;
+            }
+        }
+        return !belowHi || range(lo, hi, limit, t.right, out);
+    }
+
+    /**
+     * Internal method to compute a statistic over the items of a subtree between two bounds.
+     * @return the statistic, or its identity if no item of the subtree is in range.
+     */
+    private long aggregate(TreeAggregate<? super AnyType> aggregate, int index, AnyType lo, AnyType hi,
+                           AvlNode<AnyType> t) {
+        while (t != null) {
+            if (lo == null && hi == null) {
+                return ((AggNode<AnyType>) t).aggs[index]; // The whole subtree is in range
+            }
+            if (lo != null && compare(t.element, lo) < 0) {
+                t = t.right;
+            } else if (hi != null && compare(t.element, hi) > 0) {
+                t = t.left;
+            } else {
+                // t is in range, so one bound is already met by everything on each side of it
+                long left = aggregate(aggregate, index, lo, null, t.left);
+                long right = aggregate(aggregate, index, null, hi, t.right);
+                return aggregate.combine(aggregate.combine(left, ownValue(aggregate, t)), right);
+            }
+        }
+        return aggregate.identity();
+    }
+
+    /**
+     * Internal method to merge a sorted batch with the tree's items and rebuild the tree from the result.
+     * @param keys the items to insert, in ascending order.
+     * @return false, with the tree untouched, if keys turn out not to be in ascending order.
+     */
+    private boolean mergeAndRebuild(List<? extends AnyType> keys) {
+        ArrayList<AnyType> merged = new ArrayList<>(size + keys.size());
+        Iterator<AnyType> existing = iterator();
+        AnyType next = existing.hasNext() ? existing.next() : null;
+        AnyType last = null;
+        for (AnyType x : keys) {
+            if (last != null) {
+                int order = compare(x, last);
+                if (order < 0) {
+                    return false; // Not sorted
+                } else if (order == 0) {
+                    continue; // Duplicate within the batch
+                }
+            }
+            last = x;
+            while (next != null && compare(next, x) < 0) {
+                merged.add(next);
+                next = existing.hasNext() ? existing.next() : null;
+            }
+            if (next != null && compare(next, x) == 0) {
+                continue; // Already in the tree; keep the existing item as insert would
+            }
+            merged.add(x);
+        }
+        while (next != null) {
+            merged.add(next);
+            next = existing.hasNext() ? existing.next() : null;
+        }
+
+        root = buildBalanced(merged, 0, merged.size() - 1);
+        size = merged.size();
+        tombstones = 0; // The walk skipped them
+        if (filter != null) {
+            rebuildFilter();
+        }
+        return true;
+    }
+
+    /**
+     * Internal method to build a perfectly balanced subtree from sorted items in linear time.
+     * @param items the items, in ascending order.
+     * @param lo the first index to use.
+     * @param hi the last index to use.
+     * @return the root of the new subtree.
+     */
+    private AvlNode<AnyType> buildBalanced(List<AnyType> items, int lo, int hi) {
+        if (lo > hi) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        AvlNode<AnyType> t = newNode(items.get(mid),
+                buildBalanced(items, lo, mid - 1), buildBalanced(items, mid + 1, hi));
+        t.height = Math.max(height(t.left), height(t.right)) + 1;
+        updateAggregates(t);
+        return t;
+    }
+
+    /**
+     * Internal method to gather a subtree's live nodes in order.
+     * @param t the node that roots the subtree.
+     * @param out the list to append to.
+     */
+    private void collectLive(AvlNode<AnyType> t, List<AvlNode<AnyType>> out) {
+        if (t != null) {
+            collectLive(t.left, out);
+            if (!t.deleted) {
+                out.add(t);
+            }
+            collectLive(t.right, out);
+        }
+    }
+
+    /**
+     * Internal method to relink sorted nodes into a perfectly balanced subtree in linear time.
+     * @param nodes the nodes, in order.
+     * @param lo the first index to use.
+     * @param hi the last index to use.
+     * @return the root of the new subtree.
+     */
+    private AvlNode<AnyType> relink(List<AvlNode<AnyType>> nodes, int lo, int hi) {
+        if (lo > hi) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        AvlNode<AnyType> t = nodes.get(mid);
+        t.left = relink(nodes, lo, mid - 1);
+        t.right = relink(nodes, mid + 1, hi);
+        t.height = Math.max(height(t.left), height(t.right)) + 1;
+        updateAggregates(t);
+        return t;
+    }
+
+    /**
+     * Internal method to recompute a node's cached statistics from its children; heights stay with the caller.
+     * @param t the node, whose children are already up to date.
+     */
+    private void updateAggregates(AvlNode<AnyType> t) {
+        if (aggregates == null) {
+            return;
+        }
+        AggNode<AnyType> n = (AggNode<AnyType>) t;
+        AggNode<AnyType> left = (AggNode<AnyType>) t.left;
+        AggNode<AnyType> right = (AggNode<AnyType>) t.right;
+        int count = aggregates.size();
+        if (n.aggs == null || n.aggs.length != count) {
+            n.aggs = new long[count];
+        }
+        for (int i = 0; i < count; i++) {
+            TreeAggregate<? super AnyType> aggregate = aggregates.get(i);
+            long value = ownValue(aggregate, t);
+            if (left != null) {
+                value = aggregate.combine(left.aggs[i], value);
+            }
+            if (right != null) {
+                value = aggregate.combine(value, right.aggs[i]);
+            }
+            n.aggs[i] = value;
+        }
+    }
+
+    /**
+     * Internal method to create a node, with room for cached statistics if any aggregate was added.
+     */
+    private AvlNode<AnyType> newNode(AnyType x, AvlNode<AnyType> lt, AvlNode<AnyType> rt) {
+        return aggregates == null ? new AvlNode<>(x, lt, rt) : new AggNode<>(x, lt, rt);
+    }
+
+    /**
+     * Internal method to copy a subtree, shape and tombstones included, into nodes that can cache statistics.
+     * @param t the node that roots the subtree.
+     * @return the root of the copy.
+     */
+    private AvlNode<AnyType> copyToAggNodes(AvlNode<AnyType> t) {
+        if (t == null) {
+            return null;
         }
+        AvlNode<AnyType> copy = new AggNode<>(t.element, copyToAggNodes(t.left), copyToAggNodes(t.right));
+        copy.height = t.height;
+        copy.deleted = t.deleted;
+        return copy;
+    }
+
+    /**
+     * Internal method to recompute the cached statistics of every node in a subtree, children first.
+     * @param t the node that roots the subtree.
+     */
+    private void updateAggregatesBelow(AvlNode<AnyType> t) {
+        if (t != null) {
+            updateAggregatesBelow(t.left);
+            updateAggregatesBelow(t.right);
+            updateAggregates(t);
+        }
+    }
+
+    // What a node's own item contributes to a statistic; tombstones contribute nothing
+    private long ownValue(TreeAggregate<? super AnyType> aggregate, AvlNode<AnyType> t) {
+        return t.deleted ? aggregate.identity() : aggregate.valueOf(t.element);
+    }
+
+    // Replace the Bloom filter with a fresh one sized for twice the current contents
+    private void rebuildFilter() {
+        filter = new BloomFilter<>(Math.max(2 * size, 1024), filterRate);
+        for (AnyType x : this) {
+            filter.add(x);
+        }
+    }
+
+    // A path array deep enough for any root-to-leaf walk in this tree
+    @SuppressWarnings("unchecked")
+    private AvlNode<AnyType>[] newPath() {
+        return (AvlNode<AnyType>[]) new AvlNode<?>[height(root) + 2];
     }
 
     /**
@@ -241,11 +914,23 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
     private void printTree(AvlNode<AnyType> t) {
         if (t != null) {
             printTree(t.left);
-            System.out.println(t.element);
+            if (!t.deleted) {
+                System.out.println(t.element);
+            }
             printTree(t.right);
         }
     }
 
+    /**
+     * Compare two items, counting the call when metrics are enabled.
+     */
+    private int compare(AnyType x, AnyType y) {
+        if (TreeMetrics.ENABLED) {
+            metrics.recordComparison();
+        }
+        return x.compareTo(y);
+    }
+
     /**
      * Return the height of node t, or -1, if null.
      */
@@ -264,6 +949,8 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
         k1.right = k2;
         k2.height = Math.max(height(k2.left), height(k2.right)) + 1;
         k1.height = Math.max(height(k1.left), height(k2)) + 1;
+        updateAggregates(k2);
+        updateAggregates(k1);
         return k1;
     }
 
@@ -278,6 +965,8 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
         k2.left = k1;
         k1.height = Math.max(height(k1.left), height(k1.right)) + 1;
         k2.height = Math.max(height(k2.right), height(k1)) + 1;
+        updateAggregates(k1);
+        updateAggregates(k2);
         return k2;
     }
 
@@ -303,6 +992,50 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
         return rotateWithRightChild(k1);
     }
 
+    // AvlIterator class for in-order traversal of the AVL Tree
+    private class AvlIterator implements Iterator<AnyType> {
+        private ArrayDeque<AvlNode<AnyType>> stack; // Unsynchronized, unlike Stack: the walk is hot in reloads
+
+        AvlIterator(AvlNode<AnyType> root) {
+            stack = new ArrayDeque<>();
+            pushLeft(root);
+            skipTombstones();
+        }
+
+        // Push all left children onto the stack
+        private void pushLeft(AvlNode<AnyType> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+
+        // Pop tombstones until the top of the stack is the next live node
+        private void skipTombstones() {
+            while (!stack.isEmpty() && stack.peek().deleted) {
+                pushLeft(stack.pop().right);
+            }
+        }
+
+        // Check if there's a next element
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        // Get the next element in the in-order traversal
+        @Override
+        public AnyType next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            AvlNode<AnyType> node = stack.pop();
+            pushLeft(node.right);
+            skipTombstones();
+            return node.element;
+        }
+    }
+
     private static class AvlNode<AnyType> {
         // Constructors
         AvlNode(AnyType theElement) {
@@ -320,8 +1053,42 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
         AvlNode<AnyType> left; // Left child
         AvlNode<AnyType> right; // Right child
         int height; // Height
+        boolean deleted; // Tombstone: removed while lazy deletion was on
+    }
+
+    // A node of a tree with aggregates; plain trees use AvlNode and do not pay for the extra field
+    private static class AggNode<AnyType> extends AvlNode<AnyType> {
+        AggNode(AnyType theElement, AvlNode<AnyType> lt, AvlNode<AnyType> rt) {
+            super(theElement, lt, rt);
+        }
+
+        long[] aggs; // Cached statistics over this subtree, one per registered aggregate
     }
 
     /** The tree root. */
     private AvlNode<AnyType> root;
+
+    /** The number of items in the tree, not counting tombstones. */
+    private int size;
+
+    /** The number of nodes marked deleted but not yet compacted away. */
+    private int tombstones;
+
+    /** Whether remove leaves tombstones instead of unlinking nodes. */
+    private boolean lazyDeletion;
+
+    /** The share of tombstones among all nodes that triggers compaction. */
+    private double maxDeadFraction;
+
+    /** Optional prefilter for contains, or null. */
+    private BloomFilter<AnyType> filter;
+
+    /** The false-positive rate the filter is sized for. */
+    private double filterRate;
+
+    /** Statistics cached in every node, or null if none were added. */
+    private List<TreeAggregate<? super AnyType>> aggregates;
+
+    /** Hot-path counters; only updated when TreeMetrics.ENABLED. */
+    private final TreeMetrics metrics = new TreeMetrics();
 }
\ No newline at end of file
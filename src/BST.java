@@ -5,6 +5,7 @@
  * @date: September 20, 2024
  */
 
+import java.util.ArrayDeque;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Stack;
@@ -12,6 +13,9 @@ import java.util.Stack;
 public class BST<T extends Comparable<T>> implements Iterable<T> {
     private Node<T> root;
     private int size;
+    private final TreeMetrics metrics = new TreeMetrics(); // Hot-path counters, only updated when TreeMetrics.ENABLED
+    private BloomFilter<T> filter; // Optional prefilter for search, or null
+    private double filterRate; // The false-positive rate the filter is sized for
 
     // Constructor: Initializes the BST with an empty root
     public BST() {
@@ -23,6 +27,9 @@ public class BST<T extends Comparable<T>> implements Iterable<T> {
     public void clear() {
         root = null;
         size = 0;
+        if (filter != null) {
+            filter.clear();
+        }
     }
 
     // Get the size of the BST (number of nodes)
@@ -30,28 +37,117 @@ public class BST<T extends Comparable<T>> implements Iterable<T> {
         return size;
     }
 
-    // Insert a new value into the BST
+    // Get the height of the BST (-1 if empty); walks level by level so a degenerate tree cannot overflow the stack
+    public int height() {
+        int height = -1;
+        ArrayDeque<Node<T>> level = new ArrayDeque<>();
+        if (root != null) {
+            level.add(root);
+        }
+        while (!level.isEmpty()) {
+            height++;
+            for (int i = level.size(); i > 0; i--) {
+                Node<T> node = level.poll();
+                if (node.getLeft() != null) {
+                    level.add(node.getLeft());
+                }
+                if (node.getRight() != null) {
+                    level.add(node.getRight());
+                }
+            }
+        }
+        return height;
+    }
+
+    // Take a snapshot of the hot-path counters (they only move when run with -Dtree.metrics=true)
+    public TreeMetrics.Snapshot metricsSnapshot() {
+        return metrics.snapshot(height(), size);
+    }
+
+    // Clear the hot-path counters
+    public void resetMetrics() {
+        metrics.reset();
+    }
+
+    // Publish this tree's counters over JMX
+    public void registerMetricsMBean(String name) {
+        TreeMetrics.register(name, metrics, this::metricsSnapshot);
+    }
+
+    // Insert a new value into the BST; duplicates are ignored
     public void insert(T value) {
         root = insertRec(root, value);
-        size++;
+        if (filter != null) {
+            filter.add(value);
+            if (filter.needsRebuild()) {
+                rebuildFilter();
+            }
+        }
     }
 
     // Recursive helper method for insertion
     private Node<T> insertRec(Node<T> node, T value) {
         if (node == null) {
+            size++;
             return new Node<>(value);
         }
-        if (value.compareTo(node.getElement()) < 0) {
+        int compareResult = compare(value, node.getElement());
+        if (compareResult < 0) {
             node.setLeft(insertRec(node.getLeft(), value));
-        } else if (value.compareTo(node.getElement()) > 0) {
+        } else if (compareResult > 0) {
             node.setRight(insertRec(node.getRight(), value));
         }
         return node; // unchanged node
     }
 
+    // Compare two values, counting the call when metrics are enabled
+    private int compare(T a, T b) {
+        if (TreeMetrics.ENABLED) {
+            metrics.recordComparison();
+        }
+        return a.compareTo(b);
+    }
+
     // Remove a value from the BST
     public void remove(T value) {
+        int before = size;
         root = removeRec(root, value);
+        if (filter != null && size < before) {
+            filter.recordRemoval();
+            if (filter.needsRebuild()) {
+                rebuildFilter();
+            }
+        }
+    }
+
+    // Keep a Bloom filter alongside the BST so search can reject most absent values without descending;
+    // requires hashCode to agree with compareTo
+    public void enableBloomFilter(double falsePositiveRate) {
+        filterRate = falsePositiveRate;
+        rebuildFilter();
+    }
+
+    // Drop the Bloom filter; search goes back to always walking the tree
+    public void disableBloomFilter() {
+        filter = null;
+    }
+
+    // Memory used by the Bloom filter (0 if there is none)
+    public long bloomFilterBytes() {
+        return filter == null ? 0 : filter.sizeInBytes();
+    }
+
+    // False-positive rate implied by the Bloom filter's current fill (1 if there is none)
+    public double bloomFilterFalsePositiveRate() {
+        return filter == null ? 1.0 : filter.estimatedFalsePositiveRate();
+    }
+
+    // Replace the Bloom filter with a fresh one sized for twice the current contents
+    private void rebuildFilter() {
+        filter = new BloomFilter<>(Math.max(2 * size, 1024), filterRate);
+        for (T value : this) {
+            filter.add(value);
+        }
     }
 
     // Recursive helper method for removal
@@ -60,16 +156,19 @@ public class BST<T extends Comparable<T>> implements Iterable<T> {
             return null;
         }
 
-        if (value.compareTo(node.getElement()) < 0) {
+        int compareResult = compare(value, node.getElement());
+        if (compareResult < 0) {
             node.setLeft(removeRec(node.getLeft(), value));
-        } else if (value.compareTo(node.getElement()) > 0) {
+        } else if (compareResult > 0) {
             node.setRight(removeRec(node.getRight(), value));
         } else {
             // Node to be deleted found
             // Case 1: Node with only one child or no child
             if (node.getLeft() == null) {
+                size--;
                 return node.getRight();
             } else if (node.getRight() == null) {
+                size--;
                 return node.getLeft();
             }
 
@@ -92,7 +191,14 @@ public class BST<T extends Comparable<T>> implements Iterable<T> {
 
     // Search for a value in the BST
     public boolean search(T value) {
-        return searchRec(root, value) != null;
+        if (filter != null && !filter.mightContain(value)) {
+            return false; // Definitely absent
+        }
+        boolean found = searchRec(root, value) != null;
+        if (TreeMetrics.ENABLED) {
+            metrics.endLookup();
+        }
+        return found;
     }
 
     // Recursive helper method for search
@@ -100,10 +206,13 @@ public class BST<T extends Comparable<T>> implements Iterable<T> {
         if (node == null) {
             return null; // Value not found
         }
+        if (TreeMetrics.ENABLED) {
+            metrics.recordVisit();
+        }
         if (node.getElement().equals(value)) {
             return node; // Value found
         }
-        if (value.compareTo(node.getElement()) < 0) {
+        if (compare(value, node.getElement()) < 0) {
             return searchRec(node.getLeft(), value); // Search left subtree
         } else {
             return searchRec(node.getRight(), value); // Search right subtree
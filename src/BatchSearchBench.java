@@ -0,0 +1,117 @@
+/**
+ * @file: BatchSearchBench.java
+ * @description: This program compares AvlTree's sorted batch operations with plain loops. For a tree of n
+ *               synthetic records and sorted batches of k keys (about half of them present), it times
+ *               containsSorted against calling contains k times, and insertSorted against calling insert k
+ *               times. Run with -Dtree.metrics=true to also see comparisons per key.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class BatchSearchBench {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        PokemonGenerator generator = new PokemonGenerator(42, PokemonGenerator.Distribution.RANDOM, 10);
+        Pokemon[] all = generator.generate(2 * n);
+        Pokemon[] present = Arrays.copyOfRange(all, 0, n);
+
+        AvlTree<Pokemon> tree = new AvlTree<>();
+        for (Pokemon pokemon : present) {
+            tree.insert(pokemon);
+        }
+
+        System.out.println("\nSorted batches against a tree of " + n + " records (ns/key):");
+        System.out.println("-------------------------------------------");
+        System.out.printf("%10s %12s %14s %12s %14s%n", "k", "contains", "containsSorted", "insert", "insertSorted");
+        for (int k = Math.max(1, n / 10_000); k <= n; k *= 10) {
+            List<Pokemon> batch = sortedSample(all, k, k);
+
+            // Warm up both search paths on this batch before timing them
+            loopContains(tree, batch);
+            tree.containsSorted(batch);
+
+            tree.resetMetrics();
+            long start = System.nanoTime();
+            int loopHits = loopContains(tree, batch);
+            double loopNs = (double) (System.nanoTime() - start) / k;
+            TreeMetrics.Snapshot loopMetrics = tree.metricsSnapshot();
+
+            tree.resetMetrics();
+            start = System.nanoTime();
+            boolean[] found = tree.containsSorted(batch);
+            double fingerNs = (double) (System.nanoTime() - start) / k;
+            TreeMetrics.Snapshot fingerMetrics = tree.metricsSnapshot();
+            if (count(found) != loopHits) {
+                throw new IllegalStateException("containsSorted disagrees with contains at k=" + k);
+            }
+
+            double insertNs = timeInsert(present, batch, false);
+            double insertSortedNs = timeInsert(present, batch, true);
+
+            System.out.printf("%10d %12.1f %14.1f %12.1f %14.1f%n", k, loopNs, fingerNs, insertNs, insertSortedNs);
+            if (TreeMetrics.ENABLED) {
+                System.out.printf("%10s %12.1f %14.1f   comparisons/key%n", "",
+                        (double) loopMetrics.getComparisons() / k, (double) fingerMetrics.getComparisons() / k);
+            }
+        }
+        System.out.println("-------------------------------------------\n");
+    }
+
+    // k distinct records drawn from all, sorted by name
+    private static List<Pokemon> sortedSample(Pokemon[] all, int k, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Pokemon[] pool = all.clone();
+        List<Pokemon> sample = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(pool.length - i);
+            Pokemon tmp = pool[i];
+            pool[i] = pool[j];
+            pool[j] = tmp;
+            sample.add(pool[i]);
+        }
+        sample.sort(null);
+        return sample;
+    }
+
+    private static int loopContains(AvlTree<Pokemon> tree, List<Pokemon> batch) {
+        int hits = 0;
+        for (Pokemon pokemon : batch) {
+            if (tree.contains(pokemon)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    // Build a fresh tree from present, then time adding the batch to it
+    private static double timeInsert(Pokemon[] present, List<Pokemon> batch, boolean sorted) {
+        AvlTree<Pokemon> tree = new AvlTree<>();
+        for (Pokemon pokemon : present) {
+            tree.insert(pokemon);
+        }
+        long start = System.nanoTime();
+        if (sorted) {
+            tree.insertSorted(batch);
+        } else {
+            for (Pokemon pokemon : batch) {
+                tree.insert(pokemon);
+            }
+        }
+        return (double) (System.nanoTime() - start) / batch.size();
+    }
+
+    private static int count(boolean[] flags) {
+        int count = 0;
+        for (boolean flag : flags) {
+            if (flag) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * @file: BloomBench.java
+ * @description: This program measures what the Bloom-filter prefilter buys the BST and AVL Tree. It loads n
+ *               synthetic records (randomly ordered) into each tree, then sweeps the share of probes that hit
+ *               from 0% to 100% and times search/contains with and without the filter, reporting ns/op, the
+ *               observed false-positive rate and the filter's memory.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.util.SplittableRandom;
+
+public class BloomBench {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        double rate = args.length > 1 ? Double.parseDouble(args[1]) : 0.01;
+        int probes = Math.min(n, 1_000_000);
+
+        PokemonGenerator generator = new PokemonGenerator(42, PokemonGenerator.Distribution.RANDOM, 10);
+        Pokemon[] all = generator.generate(2 * n);
+        BST<Pokemon> bst = new BST<>();
+        AvlTree<Pokemon> avl = new AvlTree<>();
+        for (int i = 0; i < n; i++) {
+            bst.insert(all[i]);
+            avl.insert(all[i]);
+        }
+
+        System.out.println("\nBloom prefilter, n=" + n + ", target false-positive rate " + rate + " (ns/op):");
+        System.out.println("-------------------------------------------");
+        System.out.printf("%6s %10s %10s %10s %10s%n", "hit %", "BST", "BST+bloom", "AVL", "AVL+bloom");
+        for (int hitPercent = 0; hitPercent <= 100; hitPercent += 10) {
+            Pokemon[] mix = probeMix(all, n, probes, hitPercent);
+
+            bst.disableBloomFilter();
+            avl.disableBloomFilter();
+            double bstPlain = timeBst(bst, mix);
+            double avlPlain = timeAvl(avl, mix);
+
+            bst.enableBloomFilter(rate);
+            avl.enableBloomFilter(rate);
+            double bstBloom = timeBst(bst, mix);
+            double avlBloom = timeAvl(avl, mix);
+
+            System.out.printf("%6d %10.1f %10.1f %10.1f %10.1f%n", hitPercent, bstPlain, bstBloom, avlPlain, avlBloom);
+        }
+        System.out.println("-------------------------------------------");
+        System.out.printf("Filter memory: %.1f KB (%.2f bytes/entry), false-positive rate: estimated %.4f,"
+                        + " observed %.4f%n%n", avl.bloomFilterBytes() / 1024.0, (double) avl.bloomFilterBytes() / n,
+                avl.bloomFilterFalsePositiveRate(), observedFalsePositiveRate(all, n, rate));
+    }
+
+    // probes records drawn so that hitPercent of them are in the trees (all[0..n)) and the rest are not
+    private static Pokemon[] probeMix(Pokemon[] all, int n, int probes, int hitPercent) {
+        SplittableRandom random = new SplittableRandom(hitPercent);
+        Pokemon[] mix = new Pokemon[probes];
+        for (int i = 0; i < probes; i++) {
+            boolean hit = random.nextInt(100) < hitPercent;
+            mix[i] = hit ? all[random.nextInt(n)] : all[n + random.nextInt(n)];
+        }
+        return mix;
+    }
+
+    private static double timeBst(BST<Pokemon> bst, Pokemon[] mix) {
+        int found = 0;
+        long start = System.nanoTime();
+        for (Pokemon pokemon : mix) {
+            if (bst.search(pokemon)) {
+                found++;
+            }
+        }
+        return checked((double) (System.nanoTime() - start) / mix.length, found);
+    }
+
+    private static double timeAvl(AvlTree<Pokemon> avl, Pokemon[] mix) {
+        int found = 0;
+        long start = System.nanoTime();
+        for (Pokemon pokemon : mix) {
+            if (avl.contains(pokemon)) {
+                found++;
+            }
+        }
+        return checked((double) (System.nanoTime() - start) / mix.length, found);
+    }
+
+    // Keep the hit count live so the JIT cannot drop the searches
+    private static double checked(double nsPerOp, int found) {
+        return found < 0 ? -1 : nsPerOp;
+    }
+
+    // Share of absent records a filter sized like the trees' (twice the contents) lets through
+    private static double observedFalsePositiveRate(Pokemon[] all, int n, double rate) {
+        BloomFilter<Pokemon> filter = new BloomFilter<>(Math.max(2 * n, 1024), rate);
+        for (int i = 0; i < n; i++) {
+            filter.add(all[i]);
+        }
+        int passed = 0;
+        for (int i = n; i < 2 * n; i++) {
+            if (filter.mightContain(all[i])) {
+                passed++;
+            }
+        }
+        return (double) passed / n;
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * @file: BloomFilter.java
+ * @description: This class implements a blocked Bloom filter that the trees keep alongside their nodes to
+ *               answer definite misses without descending to a leaf. All of an item's bits fall in one 512-bit
+ *               block (one cache line), so a probe costs a single cache miss however many hash functions are
+ *               used. Items are hashed with hashCode(), which must agree with compareTo. A Bloom filter cannot
+ *               forget an item, so removals are only counted; the owner rebuilds the filter from its contents
+ *               once stale entries or growth past the planned size would push the false-positive rate up.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.util.Arrays;
+
+public class BloomFilter<T> {
+    private static final int BLOCK_WORDS = 8; // 8 longs = 512 bits = 64 bytes
+    private static final int BLOCK_BITS = BLOCK_WORDS * Long.SIZE;
+    private static final int MAX_HASHES = 16;
+
+    private final long[] words;
+    private final int blocks;
+    private final int hashes;
+    private final int capacity;
+    private final double falsePositiveRate;
+    private int added;
+    private int removed;
+
+    /**
+     * Construct an empty filter.
+     * @param capacity the number of items the filter is planned for.
+     * @param falsePositiveRate the target probability that an absent item is reported as present.
+     */
+    public BloomFilter(int capacity, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        this.capacity = Math.max(capacity, 1);
+        this.falsePositiveRate = falsePositiveRate;
+        // Standard sizing, plus 20% because blocking concentrates collisions in busy blocks
+        double bits = -this.capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)) * 1.2;
+        blocks = (int) Math.max(1, Math.min(Integer.MAX_VALUE / BLOCK_WORDS, Math.ceil(bits / BLOCK_BITS)));
+        words = new long[blocks * BLOCK_WORDS];
+        hashes = (int) Math.max(1, Math.min(MAX_HASHES, Math.round(-Math.log(falsePositiveRate) / Math.log(2))));
+    }
+
+    /**
+     * Add an item.
+     * @param x the item.
+     */
+    public void add(T x) {
+        long h = mix(x.hashCode());
+        int base = blockOf(h) * BLOCK_WORDS;
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 16) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            words[base + (bit >>> 6)] |= 1L << bit;
+        }
+        added++;
+    }
+
+    /**
+     * Test whether an item might have been added.
+     * @param x the item.
+     * @return false if x was definitely never added; true if it probably was.
+     */
+    public boolean mightContain(T x) {
+        long h = mix(x.hashCode());
+        int base = blockOf(h) * BLOCK_WORDS;
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 16) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            if ((words[base + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Note that an item was removed from the owner. Its bits stay set, so it still answers "maybe".
+     */
+    public void recordRemoval() {
+        removed++;
+    }
+
+    /**
+     * Forget every item.
+     */
+    public void clear() {
+        Arrays.fill(words, 0);
+        added = 0;
+        removed = 0;
+    }
+
+    /**
+     * Check whether the filter has drifted far enough from its plan that rebuilding it would pay off:
+     * more items added than it was planned for, or more than half of what was added since removed.
+     * @return true if the owner should rebuild the filter.
+     */
+    public boolean needsRebuild() {
+        return added > capacity || removed > added / 2;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    // Memory used by the bit array
+    public long sizeInBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    // False-positive rate implied by the bits actually set: the chance that all hashes hit set bits
+    public double estimatedFalsePositiveRate() {
+        long set = 0;
+        for (long word : words) {
+            set += Long.bitCount(word);
+        }
+        return Math.pow((double) set / ((long) words.length * Long.SIZE), hashes);
+    }
+
+    // Pick a block from the high bits so the low bits stay independent for the bit positions
+    private int blockOf(long h) {
+        return (int) (((h >>> 32) * blocks) >>> 32);
+    }
+
+    // Spread a 32-bit hashCode over 64 bits (the MurmurHash3 finalizer)
+    private static long mix(int hashCode) {
+        long h = hashCode * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
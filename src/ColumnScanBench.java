@@ -0,0 +1,110 @@
+/**
+ * @file: ColumnScanBench.java
+ * @description: This program compares filtering n synthetic Pokemon stored as objects with filtering them in
+ *               PokemonColumns. The query counts the records with attack and speed both at least a threshold
+ *               that are legendary, and sums their total; it runs over an AVL Tree of Pokemon (in name order),
+ *               over an array of Pokemon in name order, and over the columns. Name lookups through the
+ *               columns' NameIndex are timed against AvlTree.find.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+public class ColumnScanBench {
+    private static final int REPEATS = 10;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int threshold = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        Pokemon[] data = new PokemonGenerator(42, PokemonGenerator.Distribution.RANDOM, 10).generate(n);
+
+        AvlTree<Pokemon> tree = new AvlTree<>();
+        PokemonColumns columns = new PokemonColumns();
+        for (Pokemon pokemon : data) {
+            tree.insert(pokemon);
+            columns.add(pokemon);
+        }
+        Pokemon[] byName = data.clone();
+        Arrays.sort(byName);
+
+        System.out.println("\nFilter attack >= " + threshold + " and speed >= " + threshold
+                + " and legendary, sum of total, over " + n + " records:");
+        System.out.println("-------------------------------------------------------");
+        System.out.printf("%-16s %12s %10s %14s%n", "store", "ms/scan", "matches", "sum of total");
+        long[] expected = null;
+        for (int store = 0; store < 3; store++) {
+            long[] result = null;
+            long best = Long.MAX_VALUE;
+            for (int r = 0; r < REPEATS; r++) {
+                long start = System.nanoTime();
+                if (store == 0) {
+                    result = scanObjects(tree, threshold);
+                } else if (store == 1) {
+                    result = scanObjects(Arrays.asList(byName), threshold);
+                } else {
+                    result = scanColumns(columns, threshold);
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            if (expected == null) {
+                expected = result;
+            } else if (!Arrays.equals(expected, result)) {
+                throw new IllegalStateException("stores disagree: " + Arrays.toString(result));
+            }
+            System.out.printf("%-16s %12.2f %10d %14d%n", new String[] {"AvlTree", "Pokemon[]", "columns"}[store],
+                    best / 1e6, result[0], result[1]);
+        }
+
+        SplittableRandom random = new SplittableRandom(3);
+        String[] names = new String[Math.min(n, 1_000_000)];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = data[random.nextInt(n)].getName();
+        }
+        long start = System.nanoTime();
+        long rowSum = 0;
+        for (String name : names) {
+            rowSum += columns.rowOf(name);
+        }
+        double columnLookup = (double) (System.nanoTime() - start) / names.length;
+        start = System.nanoTime();
+        long found = 0;
+        for (String name : names) {
+            if (tree.find(PokemonCodec.key(name)) != null) {
+                found++;
+            }
+        }
+        double treeLookup = (double) (System.nanoTime() - start) / names.length;
+        if (rowSum < 0 || found != names.length) {
+            throw new IllegalStateException("a name lookup missed");
+        }
+        System.out.println("-------------------------------------------------------");
+        System.out.printf("Name lookup ns/op: %.1f NameIndex -> row id, %.1f AvlTree.find%n", columnLookup,
+                treeLookup);
+        System.out.printf("Column memory: %.1f bytes/record (names and name index not included)%n%n",
+                (double) columns.columnBytes() / n);
+    }
+
+    // Filter by dereferencing each record
+    private static long[] scanObjects(Iterable<Pokemon> records, int threshold) {
+        long matches = 0;
+        long sum = 0;
+        for (Pokemon pokemon : records) {
+            if (pokemon.getAttack() >= threshold && pokemon.getSpeed() >= threshold && pokemon.getIsLegendary()) {
+                matches++;
+                sum += pokemon.getTotal();
+            }
+        }
+        return new long[] {matches, sum};
+    }
+
+    // Filter column by column and combine the row sets
+    private static long[] scanColumns(PokemonColumns columns, int threshold) {
+        BitSet rows = columns.where(PokemonColumns.Stat.ATTACK, threshold, Integer.MAX_VALUE);
+        rows.and(columns.where(PokemonColumns.Stat.SPEED, threshold, Integer.MAX_VALUE));
+        rows.and(columns.legendary());
+        return new long[] {rows.cardinality(), columns.sum(PokemonColumns.Stat.TOTAL, rows)};
+    }
+}
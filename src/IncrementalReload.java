@@ -0,0 +1,255 @@
+/**
+ * @file: IncrementalReload.java
+ * @description: This class refreshes an AVL Tree of Pokemon from a new dataset by changing only what
+ *               changed. The new records, sorted by name, are merge-diffed against an in-order walk of the
+ *               tree: names only in the tree are removed, names only in the new data are inserted (as one
+ *               sorted batch), and records whose fields changed are replaced in place, which keeps the tree's
+ *               shape and only recomputes cached aggregates on their paths. The diff itself still reads every
+ *               record on both sides, so it is O(n) comparisons with no allocation per unchanged record; what
+ *               scales with the size of the change is the tree work, which is where a full rebuild spends its
+ *               time (n allocations and O(n log n) comparisons). The new records are held in a List for the
+ *               whole reload, since they may need sorting before the diff; only the tree is updated in place.
+ *               A new file that cannot be read, or holds no records, aborts the reload with the tree untouched.
+ *
+ *               Usage: java IncrementalReload <old file> <new file>   loads the old CSV, then reloads the new one
+ *                      java IncrementalReload --synthetic [n]          times reloads against full rebuilds
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class IncrementalReload {
+    /**
+     * What a reload changed and how long it took.
+     */
+    public static class Result {
+        public int inserted;
+        public int removed;
+        public int updated;
+        public int unchanged;
+        public long sortNanos;
+        public long diffNanos;
+        public long applyNanos;
+
+        public long totalNanos() {
+            return sortNanos + diffNanos + applyNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d inserted, %d removed, %d updated, %d unchanged in %.1f ms"
+                            + " (sort %.1f, diff %.1f, apply %.1f)", inserted, removed, updated, unchanged,
+                    totalNanos() / 1e6, sortNanos / 1e6, diffNanos / 1e6, applyNanos / 1e6);
+        }
+    }
+
+    // The changes a reload applies
+    private static class Diff {
+        final List<Pokemon> inserts = new ArrayList<>();
+        final List<Pokemon> removes = new ArrayList<>();
+        final List<Pokemon> updates = new ArrayList<>();
+    }
+
+    /**
+     * Make a tree hold exactly a new set of records. Where the new data names a record twice, the first one
+     * wins, as it would when inserting into an empty tree.
+     * @param tree the tree to refresh.
+     * @param fresh the new records; sorted by name first if they are not already.
+     * @return the counts and timings.
+     */
+    public static Result reload(AvlTree<Pokemon> tree, List<Pokemon> fresh) {
+        Result result = new Result();
+        long start = System.nanoTime();
+        Diff diff = diff(tree, fresh, result);
+        if (diff == null) {
+            // Out of order: sort a copy (stably, so the first of any duplicates stays first) and diff again
+            List<Pokemon> sorted = new ArrayList<>(fresh);
+            Collections.sort(sorted);
+            result.sortNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            diff = diff(tree, sorted, result);
+        }
+        result.diffNanos = System.nanoTime() - start;
+
+        // Apply only after the walk: removes and inserts reshape the tree under the iterator
+        start = System.nanoTime();
+        for (Pokemon pokemon : diff.removes) {
+            tree.remove(pokemon);
+        }
+        for (Pokemon pokemon : diff.updates) {
+            tree.replace(pokemon);
+        }
+        tree.insertSorted(diff.inserts);
+        result.applyNanos = System.nanoTime() - start;
+
+        result.inserted = diff.inserts.size();
+        result.removed = diff.removes.size();
+        result.updated = diff.updates.size();
+        return result;
+    }
+
+    // Merge the tree's in-order walk with the new records; null if the new records turn out not to be sorted
+    private static Diff diff(AvlTree<Pokemon> tree, List<Pokemon> fresh, Result result) {
+        Diff diff = new Diff();
+        result.unchanged = 0;
+        Iterator<Pokemon> existing = tree.iterator();
+        Pokemon current = existing.hasNext() ? existing.next() : null;
+        Pokemon previous = null;
+        for (Pokemon pokemon : fresh) {
+            if (previous != null) {
+                int order = pokemon.compareTo(previous);
+                if (order < 0) {
+                    return null;
+                } else if (order == 0) {
+                    continue; // Duplicate name in the new data
+                }
+            }
+            previous = pokemon;
+
+            // One comparison per step: old records below the new one are gone
+            int order = current == null ? 1 : current.compareTo(pokemon);
+            while (order < 0) {
+                diff.removes.add(current);
+                current = existing.hasNext() ? existing.next() : null;
+                order = current == null ? 1 : current.compareTo(pokemon);
+            }
+            if (order == 0) {
+                if (current.sameRecord(pokemon)) {
+                    result.unchanged++;
+                } else {
+                    diff.updates.add(pokemon);
+                }
+                current = existing.hasNext() ? existing.next() : null;
+            } else {
+                diff.inserts.add(pokemon);
+            }
+        }
+        while (current != null) {
+            diff.removes.add(current);
+            current = existing.hasNext() ? existing.next() : null;
+        }
+        return diff;
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--synthetic")) {
+            runSynthetic(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000);
+            return;
+        }
+        if (args.length != 2) {
+            System.err.println("Usage: java IncrementalReload <old file> <new file>");
+            System.err.println("       java IncrementalReload --synthetic [n]");
+            System.exit(1);
+        }
+
+        ArrayList<Pokemon> old = new ArrayList<>();
+        ArrayList<Pokemon> fresh = new ArrayList<>();
+        try {
+            Proj2.readPokemonData(args[0], old, Integer.MAX_VALUE);
+            AvlTree<Pokemon> tree = new AvlTree<>();
+            for (Pokemon pokemon : old) {
+                tree.insert(pokemon);
+            }
+            // A failed or empty load must not reach reload, which would take it as "every record was removed"
+            Proj2.readPokemonData(args[1], fresh, Integer.MAX_VALUE);
+            if (fresh.isEmpty()) {
+                throw new IOException("no records in " + args[1]);
+            }
+            System.out.println("Reloaded " + args[1] + ": " + reload(tree, fresh) + "; tree size " + tree.size());
+        } catch (IOException e) {
+            System.err.println("Reload aborted, tree unchanged: " + e);
+            System.exit(1);
+        }
+    }
+
+    // Time reloads that change a growing share of n records against rebuilding the tree from the new data
+    private static void runSynthetic(int n) {
+        Pokemon[] base = new PokemonGenerator(42, PokemonGenerator.Distribution.RANDOM, 10).generate(n);
+        ArrayList<Pokemon> sortedBase = new ArrayList<>(List.of(base));
+        Collections.sort(sortedBase);
+
+        System.out.println("\nIncremental reload of " + n + " records (new data already sorted; ms, and MB allocated):");
+        System.out.println("------------------------------------------------------------------------------------------");
+        System.out.printf("%9s %8s %8s %8s %8s %10s %8s %12s %10s%n", "changed %", "changes", "diff", "apply",
+                "reload", "reload MB", "rebuild", "rebuild bulk", "bulk MB");
+        AvlTree<Pokemon> warmup = new AvlTree<>();
+        warmup.insertSorted(sortedBase);
+        reload(warmup, changed(sortedBase, 0.01, new SplittableRandom(1))); // Untimed: let the JIT compile it
+        for (double share : new double[] {0.0001, 0.001, 0.01, 0.1}) {
+            List<Pokemon> fresh = changed(sortedBase, share, new SplittableRandom(9));
+
+            AvlTree<Pokemon> tree = new AvlTree<>();
+            tree.insertSorted(sortedBase);
+            MemoryProbe probe = MemoryProbe.start();
+            Result result = reload(tree, fresh);
+            MemoryProbe.Sample reloadMemory = probe.stop();
+
+            // What refreshing costs today: a new tree filled one insert at a time
+            long start = System.nanoTime();
+            AvlTree<Pokemon> rebuilt = new AvlTree<>();
+            for (Pokemon pokemon : fresh) {
+                rebuilt.insert(pokemon);
+            }
+            double rebuildMs = (System.nanoTime() - start) / 1e6;
+            // The linear rebuild the sorted batch insert already offers
+            probe = MemoryProbe.start();
+            start = System.nanoTime();
+            AvlTree<Pokemon> rebuiltSorted = new AvlTree<>();
+            rebuiltSorted.insertSorted(fresh);
+            double rebuildSortedMs = (System.nanoTime() - start) / 1e6;
+            MemoryProbe.Sample bulkMemory = probe.stop();
+
+            if (!sameContents(tree, rebuilt)) {
+                throw new IllegalStateException("reload and rebuild disagree");
+            }
+            System.out.printf("%9.2f %8d %8.1f %8.1f %8.1f %10.2f %8.1f %12.1f %10.2f%n", share * 100,
+                    result.inserted + result.removed + result.updated, result.diffNanos / 1e6,
+                    result.applyNanos / 1e6, result.totalNanos() / 1e6, reloadMemory.getAllocatedBytes() / 1e6,
+                    rebuildMs, rebuildSortedMs, bulkMemory.getAllocatedBytes() / 1e6);
+        }
+        System.out.println("------------------------------------------------------------------------------------------\n");
+    }
+
+    // A copy of sorted records with share of them removed, share changed and share more added, still sorted
+    private static List<Pokemon> changed(List<Pokemon> sorted, double share, SplittableRandom random) {
+        List<Pokemon> fresh = new ArrayList<>(sorted.size());
+        List<Pokemon> added = new ArrayList<>();
+        for (Pokemon pokemon : sorted) {
+            double roll = random.nextDouble();
+            if (roll < share) {
+                continue; // Removed
+            }
+            if (roll < 2 * share) {
+                Pokemon update = new Pokemon(pokemon);
+                update.setHp(update.getHp() + 1);
+                fresh.add(update);
+            } else {
+                fresh.add(pokemon);
+            }
+            if (roll >= 1 - share) {
+                Pokemon insert = new Pokemon(pokemon);
+                insert.setName(pokemon.getName() + "Neo");
+                added.add(insert);
+            }
+        }
+        fresh.addAll(added);
+        Collections.sort(fresh); // Nearly sorted already, so this is close to linear
+        return fresh;
+    }
+
+    private static boolean sameContents(AvlTree<Pokemon> a, AvlTree<Pokemon> b) {
+        Iterator<Pokemon> other = b.iterator();
+        for (Pokemon pokemon : a) {
+            if (!other.hasNext() || !pokemon.sameRecord(other.next())) {
+                return false;
+            }
+        }
+        return !other.hasNext() && a.size() == b.size();
+    }
+}
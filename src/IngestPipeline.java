@@ -0,0 +1,426 @@
+/**
+ * @file: IngestPipeline.java
+ * @description: This class makes tree mutations durable without paying an fsync per operation. Producers put
+ *               insert/remove commands on a bounded queue (blocking when it is full) and get a future back. A
+ *               single committer thread takes whatever has queued up, appends the whole batch to a write-ahead
+ *               log with one FileChannel write and one force, applies the batch to the tree through the insert
+ *               and remove callbacks, and only then completes the futures: a completed future means the
+ *               mutation is on disk and in the tree. The busier the producers, the bigger the batches and the
+ *               fewer fsyncs per mutation (group commit).
+ *
+ *               Each log record is: int length of the rest, int CRC32C of the rest, byte op, encoded item. On
+ *               construction the log is replayed into the tree; a record cut short or failing its CRC marks a
+ *               write torn by a crash, so the log is truncated there and appending resumes. The callbacks run
+ *               only on the committer thread (or the constructing thread during replay), so a tree that is also
+ *               read elsewhere must be guarded by the caller. A record longer than MAX_RECORD is never written:
+ *               its command fails with IllegalArgumentException.
+ *
+ *               The committer is a daemon thread, so a pipeline left open does not keep the JVM alive, but
+ *               commands still queued when the JVM exits are lost; call close() to commit them first.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+public class IngestPipeline<T> implements AutoCloseable {
+    /**
+     * How items are written to and read back from the log.
+     */
+    public interface Codec<T> {
+        void write(DataOutput out, T item) throws IOException;
+
+        T read(DataInput in) throws IOException;
+    }
+
+    private static final byte INSERT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte STOP = 0; // Queued by close(); never written to the log
+    private static final int MAX_RECORD = 1 << 20; // A longer length field can only be garbage
+
+    private final FileChannel log;
+    private final Codec<T> codec;
+    private final Consumer<T> insert;
+    private final Consumer<T> remove;
+    private final int maxBatch;
+    private final BlockingQueue<Command<T>> queue;
+    private final Thread committer;
+    private final int replayed;
+    private final long truncatedBytes;
+    // Held shared from checking closed until a command is queued, exclusively by close() to set it, so the
+    // STOP close() queues is always behind every command that was accepted
+    private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed; // Guarded by closeLock
+    private volatile IOException failure;
+
+    // Written by the committer thread and read by stats(), both under the histogram's monitor
+    private final LatencyHistogram batchSizes = new LatencyHistogram();
+    private long batches;
+    private long records;
+    private long bytes;
+    private long forceNanos;
+
+    /**
+     * Open (or create) a log, replay it into the tree and start accepting commands.
+     * @param path the log file.
+     * @param codec how items are encoded in the log.
+     * @param insert applies an insert to the tree.
+     * @param remove applies a remove to the tree.
+     * @param queueCapacity the most commands that may wait for the committer before producers block.
+     * @param maxBatch the most commands committed with one fsync; 1 gives one fsync per command.
+     */
+    public IngestPipeline(Path path, Codec<T> codec, Consumer<T> insert, Consumer<T> remove, int queueCapacity,
+                          int maxBatch) throws IOException {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxBatch);
+        }
+        this.log = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.codec = codec;
+        this.insert = insert;
+        this.remove = remove;
+        this.maxBatch = maxBatch;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        long size = log.size();
+        long validEnd;
+        try {
+            int[] count = new int[1];
+            validEnd = replay(count);
+            replayed = count[0];
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+        truncatedBytes = size - validEnd;
+        if (truncatedBytes > 0) {
+            log.truncate(validEnd);
+            log.force(true);
+        }
+        log.position(validEnd);
+
+        committer = new Thread(this::commitLoop, "ingest-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Queue an insert, blocking while the queue is full.
+     * @param x the item to insert.
+     * @return a future completed once the insert is in the log and applied to the tree, or failed with
+     *         IllegalArgumentException if x encodes to a record longer than the log accepts.
+     */
+    public CompletableFuture<Void> insert(T x) throws InterruptedException {
+        return submit(INSERT, x);
+    }
+
+    /**
+     * Queue a remove, blocking while the queue is full.
+     * @param x the item to remove.
+     * @return a future completed once the remove is in the log and applied to the tree, or failed with
+     *         IllegalArgumentException if x encodes to a record longer than the log accepts.
+     */
+    public CompletableFuture<Void> remove(T x) throws InterruptedException {
+        return submit(REMOVE, x);
+    }
+
+    /**
+     * Get the number of log records applied to the tree when the log was opened.
+     * @return the number of records replayed.
+     */
+    public int replayedRecords() {
+        return replayed;
+    }
+
+    /**
+     * Get the number of bytes cut from the end of the log when it was opened, because the last write was torn.
+     * @return the number of bytes truncated; 0 after a clean shutdown.
+     */
+    public long truncatedBytes() {
+        return truncatedBytes;
+    }
+
+    /**
+     * Take a snapshot of the commit counters.
+     * @return the counters so far.
+     */
+    public Stats stats() {
+        synchronized (batchSizes) {
+            LatencyHistogram sizes = new LatencyHistogram();
+            sizes.add(batchSizes);
+            return new Stats(batches, records, bytes, forceNanos, sizes);
+        }
+    }
+
+    /**
+     * Commit everything already queued, then stop and close the log. Commands submitted after this throw
+     * IllegalStateException.
+     */
+    @Override
+    public void close() throws IOException {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        boolean interrupted = false;
+        boolean queued = false;
+        while (committer.isAlive()) {
+            try {
+                if (!queued) {
+                    queue.put(new Command<>(STOP, null));
+                    queued = true;
+                }
+                committer.join();
+            } catch (InterruptedException e) {
+                interrupted = true; // Finish closing; the log must not be left half-written
+            }
+        }
+        // Nothing can be queued behind the STOP, but whatever the committer did not take must not hang
+        List<Command<T>> left = new ArrayList<>();
+        queue.drainTo(left);
+        failRemaining(left);
+        log.close();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private CompletableFuture<Void> submit(byte op, T x) throws InterruptedException {
+        Command<T> command = new Command<>(op, x);
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Pipeline is closed");
+            }
+            queue.put(command); // The committer keeps taking until close() gets the write lock
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        return command.done;
+    }
+
+    // Apply every intact record in the log; returns the offset just past the last one
+    private long replay(int[] count) throws IOException {
+        log.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(log)));
+        CRC32C crc = new CRC32C();
+        byte[] body = new byte[256];
+        long offset = 0;
+        while (true) {
+            int length;
+            int checksum;
+            try {
+                length = in.readInt();
+                checksum = in.readInt();
+            } catch (EOFException e) {
+                return offset; // Clean end, or a header cut short
+            }
+            if (length < 1 || length > MAX_RECORD) {
+                return offset;
+            }
+            if (body.length < length) {
+                body = new byte[Math.max(length, 2 * body.length)];
+            }
+            if (readFully(in, body, length) < length) {
+                return offset;
+            }
+            crc.reset();
+            crc.update(body, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                return offset;
+            }
+            T item = codec.read(new DataInputStream(new ByteArrayInputStream(body, 1, length - 1)));
+            apply(body[0], item);
+            offset += 8 + length;
+            count[0]++;
+        }
+    }
+
+    // Like DataInput.readFully, but reports a short read instead of throwing
+    private static int readFully(InputStream in, byte[] buffer, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int n = in.read(buffer, read, length - read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        return read;
+    }
+
+    private void commitLoop() {
+        List<Command<T>> batch = new ArrayList<>(maxBatch);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        DataOutputStream recordOut = new DataOutputStream(record);
+        CRC32C crc = new CRC32C();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue; // Only close() stops the committer
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.get(i).op == STOP) {
+                    // Nothing is queued after the STOP; fail it if it ever is rather than leave it hanging
+                    failRemaining(batch.subList(i + 1, batch.size()));
+                    batch.subList(i, batch.size()).clear();
+                    stopping = true;
+                }
+            }
+            try {
+                if (failure != null) {
+                    throw failure;
+                }
+                encoded.reset();
+                for (Iterator<Command<T>> it = batch.iterator(); it.hasNext(); ) {
+                    Command<T> command = it.next();
+                    record.reset();
+                    recordOut.writeByte(command.op);
+                    codec.write(recordOut, command.item);
+                    if (record.size() > MAX_RECORD) {
+                        // Replay would take it for garbage and drop it with everything after it
+                        command.done.completeExceptionally(new IllegalArgumentException(
+                                "Record of " + record.size() + " bytes is longer than " + MAX_RECORD));
+                        it.remove();
+                        continue;
+                    }
+                    crc.reset();
+                    crc.update(record.toByteArray());
+                    writeInt(encoded, record.size());
+                    writeInt(encoded, (int) crc.getValue());
+                    record.writeTo(encoded);
+                }
+                commit(batch, encoded);
+                for (Command<T> command : batch) {
+                    try {
+                        apply(command.op, command.item);
+                        command.done.complete(null);
+                    } catch (RuntimeException e) {
+                        command.done.completeExceptionally(e); // Logged already; the tree rejected it
+                    }
+                }
+            } catch (IOException e) {
+                // The log can no longer be trusted to match the tree: fail this batch and everything after
+                failure = e;
+                for (Command<T> command : batch) {
+                    command.done.completeExceptionally(e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private static <T> void failRemaining(Iterable<Command<T>> commands) {
+        for (Command<T> command : commands) {
+            command.done.completeExceptionally(new IllegalStateException("Pipeline is closed"));
+        }
+    }
+
+    // Append one batch and force it to disk
+    private void commit(List<Command<T>> batch, ByteArrayOutputStream encoded) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(encoded.toByteArray());
+        while (buffer.hasRemaining()) {
+            log.write(buffer);
+        }
+        long start = System.nanoTime();
+        log.force(false);
+        long elapsed = System.nanoTime() - start;
+        synchronized (batchSizes) {
+            batchSizes.record(batch.size());
+            batches++;
+            records += batch.size();
+            bytes += encoded.size();
+            forceNanos += elapsed;
+        }
+    }
+
+    private void apply(byte op, T item) {
+        if (op == INSERT) {
+            insert.accept(item);
+        } else if (op == REMOVE) {
+            remove.accept(item);
+        } else {
+            throw new IllegalStateException("Unknown log op " + op);
+        }
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int v) {
+        out.write(v >>> 24);
+        out.write(v >>> 16);
+        out.write(v >>> 8);
+        out.write(v);
+    }
+
+    private static class Command<T> {
+        Command(byte op, T item) {
+            this.op = op;
+            this.item = item;
+        }
+
+        final byte op;
+        final T item;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+    }
+
+    /**
+     * Commit counters at one point in time.
+     */
+    public static class Stats {
+        Stats(long batches, long records, long bytes, long forceNanos, LatencyHistogram batchSizes) {
+            this.batches = batches;
+            this.records = records;
+            this.bytes = bytes;
+            this.forceNanos = forceNanos;
+            this.batchSizes = batchSizes;
+        }
+
+        /** Number of fsyncs (one per batch). */
+        public final long batches;
+        /** Number of commands committed. */
+        public final long records;
+        /** Number of bytes appended to the log. */
+        public final long bytes;
+        /** Total time spent in force. */
+        public final long forceNanos;
+        /** Distribution of commands per fsync. */
+        public final LatencyHistogram batchSizes;
+    }
+}
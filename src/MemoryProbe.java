@@ -0,0 +1,172 @@
+/**
+ * @file: MemoryProbe.java
+ * @description: This class measures the memory cost of building a tree. A probe brackets a piece of work and
+ *               reports the bytes the current thread allocated (exact, and independent of which collector is
+ *               running) together with the collections and GC time it triggered. For payload and node sizes it
+ *               also offers a JOL-style layout estimate computed from the declared fields of a class, using the
+ *               running JVM's reference size and object alignment.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+public class MemoryProbe {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final int REFERENCE_SIZE = compressedOops() ? 4 : 8;
+    private static final int OBJECT_HEADER = compressedOops() ? 12 : 16;
+    private static final int ARRAY_HEADER = 16;
+    private static final int ALIGNMENT = 8;
+
+    private final long startAllocated;
+    private final long startGcCount;
+    private final long startGcMillis;
+
+    private MemoryProbe() {
+        startGcCount = gcCount();
+        startGcMillis = gcMillis();
+        startAllocated = THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Start measuring the current thread.
+     * @return a running probe.
+     */
+    public static MemoryProbe start() {
+        return new MemoryProbe();
+    }
+
+    /**
+     * Stop measuring.
+     * @return what was allocated and collected since start().
+     */
+    public Sample stop() {
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - startAllocated;
+        return new Sample(allocated, gcCount() - startGcCount, gcMillis() - startGcMillis);
+    }
+
+    /**
+     * Estimate the shallow size of an instance of a class: header plus declared fields, rounded up to the
+     * object alignment. Like JOL's estimate it ignores the occasional padding gap between fields.
+     * @param type the class.
+     * @return the estimated size in bytes.
+     */
+    public static long shallowSize(Class<?> type) {
+        long size = OBJECT_HEADER;
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    size += fieldSize(field.getType());
+                }
+            }
+        }
+        return align(size);
+    }
+
+    /**
+     * Estimate the retained size of a String (the String itself plus its backing byte array), assuming
+     * compact strings.
+     * @param s the string.
+     * @return the estimated size in bytes.
+     */
+    public static long stringSize(String s) {
+        boolean latin1 = true;
+        for (int i = 0; i < s.length() && latin1; i++) {
+            latin1 = s.charAt(i) < 256;
+        }
+        return shallowSize(String.class) + align(ARRAY_HEADER + (long) s.length() * (latin1 ? 1 : 2));
+    }
+
+    /**
+     * Estimate the retained size of a Pokemon and its strings. Strings shared between records (such as
+     * interned type names) are counted once per record, so this is an upper bound.
+     * @param pokemon the record.
+     * @return the estimated size in bytes.
+     */
+    public static long pokemonSize(Pokemon pokemon) {
+        return shallowSize(Pokemon.class) + stringSize(pokemon.getName()) + stringSize(pokemon.getType1())
+                + stringSize(pokemon.getType2());
+    }
+
+    // Size of a field of the given type inside an object
+    private static int fieldSize(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return REFERENCE_SIZE;
+        } else if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1; // byte, boolean
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    // Compressed references are on by default for heaps under 32 GB
+    private static boolean compressedOops() {
+        try {
+            com.sun.management.HotSpotDiagnosticMXBean hotSpot =
+                    ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+            return Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedOops").getValue());
+        } catch (RuntimeException e) {
+            return Runtime.getRuntime().maxMemory() < 32L * 1024 * 1024 * 1024;
+        }
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * What one probe saw.
+     */
+    public static class Sample {
+        private final long allocatedBytes;
+        private final long gcCount;
+        private final long gcMillis;
+
+        Sample(long allocatedBytes, long gcCount, long gcMillis) {
+            this.allocatedBytes = allocatedBytes;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public long getGcCount() {
+            return gcCount;
+        }
+
+        public long getGcMillis() {
+            return gcMillis;
+        }
+
+        // Bytes allocated per item, e.g. per node when the probe bracketed n inserts
+        public double bytesPer(long items) {
+            return items == 0 ? 0.0 : (double) allocatedBytes / items;
+        }
+    }
+}
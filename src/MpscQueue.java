@@ -0,0 +1,66 @@
+/**
+ * @file: MpscQueue.java
+ * @description: This class implements an unbounded lock-free multi-producer single-consumer queue (Dmitry
+ *               Vyukov's intrusive MPSC design). A producer enqueues with one atomic swap of the tail; the single
+ *               consumer dequeues without any atomic instruction. It is the inbox of each ShardedAvlTree shard.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public class MpscQueue<E> {
+    private final AtomicReference<QueueNode<E>> tail;
+    private QueueNode<E> head; // Touched only by the consumer; always a consumed (stub) node
+
+    /**
+     * Construct an empty queue.
+     */
+    public MpscQueue() {
+        QueueNode<E> stub = new QueueNode<>(null);
+        head = stub;
+        tail = new AtomicReference<>(stub);
+    }
+
+    /**
+     * Add an item at the tail. Safe to call from any number of threads.
+     * @param e the item; must not be null.
+     */
+    public void offer(E e) {
+        QueueNode<E> node = new QueueNode<>(e);
+        QueueNode<E> previous = tail.getAndSet(node);
+        previous.next = node; // Until this store the consumer sees the queue end at previous
+    }
+
+    /**
+     * Remove the item at the head. Only the consumer thread may call this.
+     * @return the item, or null if the queue is (momentarily) empty.
+     */
+    public E poll() {
+        QueueNode<E> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        E value = next.value;
+        next.value = null; // next becomes the new stub; let the item be collected
+        head = next;
+        return value;
+    }
+
+    /**
+     * Test for items. Only the consumer thread may call this.
+     * @return true if poll would return null right now.
+     */
+    public boolean isEmpty() {
+        return head.next == null;
+    }
+
+    private static class QueueNode<E> {
+        QueueNode(E value) {
+            this.value = value;
+        }
+
+        E value;
+        volatile QueueNode<E> next;
+    }
+}
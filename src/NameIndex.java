@@ -0,0 +1,52 @@
+/**
+ * @file: NameIndex.java
+ * @description: This class maps case-insensitive names to int ids, such as row ids, on the name-keyed AVL Tree
+ *               of NameKeyTree. The id is stored in the node itself, so an entry costs one node and no boxed
+ *               Integer, and a lookup returns a primitive.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+public class NameIndex extends NameKeyTree<NameIndex.IdNode> {
+    /** What get returns for a name that is not in the index. */
+    public static final int NOT_FOUND = -1;
+
+    /**
+     * Construct the index.
+     */
+    public NameIndex() {
+    }
+
+    /**
+     * Associate an id with a name, replacing the id already stored under that name (ignoring case).
+     * @param name the key.
+     * @param id the id.
+     */
+    public void put(String name, int id) {
+        insertNode(name).id = id;
+    }
+
+    /**
+     * Find the id stored under a name (ignoring case).
+     * @param name the key.
+     * @return the id, or NOT_FOUND if the name is not in the index.
+     */
+    public int get(String name) {
+        IdNode t = findNode(name);
+        return t == null ? NOT_FOUND : t.id;
+    }
+
+    @Override
+    protected IdNode newNode() {
+        return new IdNode();
+    }
+
+    @Override
+    protected void copyPayload(IdNode from, IdNode to) {
+        to.id = from.id;
+    }
+
+    protected static class IdNode extends NameKeyTree.NameNode<IdNode> {
+        int id; // The data in the node
+    }
+}
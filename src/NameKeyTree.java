@@ -0,0 +1,371 @@
+/**
+ * @file: NameKeyTree.java
+ * @description: This class implements the AVL Tree keyed by case-insensitive names behind NameTree and
+ *               NameIndex, built for name lookups that would otherwise go through AvlTree<Pokemon>. There, every
+ *               comparison follows node -> Pokemon -> String -> byte[] and folds case one character at a time.
+ *               Here each node inlines the first 8 bytes of its case-folded UTF-8 key in a long, so most
+ *               comparisons are a single unsigned long compare on the node itself; only the remaining bytes, if
+ *               any, live in a separate array. Keys order exactly like String.compareToIgnoreCase for names made
+ *               of BMP characters, which covers every name in Pokemon.csv. Subclasses decide what a node holds
+ *               besides its key, so an int payload can sit in the node unboxed.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public abstract class NameKeyTree<N extends NameKeyTree.NameNode<N>> {
+    /**
+     * Construct the tree.
+     */
+    protected NameKeyTree() {
+        root = null;
+    }
+
+    /**
+     * Create a node for a new name; its key and links are set by the tree.
+     * @return the new node.
+     */
+    protected abstract N newNode();
+
+    /**
+     * Copy the payload of one node into another, when removing a name moves its successor's entry.
+     * @param from the node whose payload is kept.
+     * @param to the node that takes it over.
+     */
+    protected abstract void copyPayload(N from, N to);
+
+    /**
+     * Find the node holding a name (ignoring case). ASCII names, which is every name in Pokemon.csv, are
+     * compared with each node in place, without building a folded copy of the name.
+     * @param name the key.
+     * @return the node, or null if the name is not in the tree.
+     */
+    protected N findNode(String name) {
+        if (!Key.isAscii(name)) {
+            return findNode(new Key(name));
+        }
+        long prefix = Key.asciiPrefix(name);
+        N t = root;
+        while (t != null) {
+            int compareResult = prefix != t.prefix
+                    ? Long.compareUnsigned(prefix, t.prefix) : Key.compareAsciiTail(name, t.tail);
+            if (compareResult < 0) {
+                t = t.left;
+            } else if (compareResult > 0) {
+                t = t.right;
+            } else {
+                return t; // Match found
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the node holding a name, adding one if the name is not in the tree yet.
+     * @param name the key.
+     * @return the node; a new one has its payload at the defaults newNode gave it.
+     */
+    protected N insertNode(String name) {
+        root = insert(new Key(name), root);
+        N node = inserted;
+        inserted = null;
+        return node;
+    }
+
+    /**
+     * Find a name in the tree (ignoring case).
+     * @param name the key.
+     * @return true if the name is found.
+     */
+    public boolean containsName(String name) {
+        return findNode(name) != null;
+    }
+
+    /**
+     * Remove a name from the tree. Nothing is done if it is not found.
+     * @param name the key.
+     */
+    public void remove(String name) {
+        root = remove(new Key(name), root);
+    }
+
+    /**
+     * Get the number of names in the tree.
+     * @return the number of names.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the height of the tree.
+     * @return the height, or -1 if empty.
+     */
+    public int height() {
+        return height(root);
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    // Lookup by a folded key, for names outside ASCII
+    private N findNode(Key key) {
+        N t = root;
+        while (t != null) {
+            int compareResult = key.compareTo(t);
+            if (compareResult < 0) {
+                t = t.left;
+            } else if (compareResult > 0) {
+                t = t.right;
+            } else {
+                return t; // Match found
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Internal method to insert into a subtree, leaving the node found or added in inserted.
+     * @param key the folded key.
+     * @param t the node that roots the subtree.
+     * @return the new root of the subtree.
+     */
+    private N insert(Key key, N t) {
+        if (t == null) {
+            size++;
+            N node = newNode();
+            node.prefix = key.prefix;
+            node.tail = key.tail;
+            inserted = node;
+            return node;
+        }
+
+        int compareResult = key.compareTo(t);
+
+        if (compareResult < 0) {
+            t.left = insert(key, t.left);
+        } else if (compareResult > 0) {
+            t.right = insert(key, t.right);
+        } else {
+            inserted = t; // Same name; the caller replaces the payload
+        }
+
+        return balance(t);
+    }
+
+    /**
+     * Internal method to remove from a subtree.
+     * @param key the folded key.
+     * @param t the node that roots the subtree.
+     * @return the new root of the subtree.
+     */
+    private N remove(Key key, N t) {
+        if (t == null) {
+            return t; // Item not found; do nothing
+        }
+
+        int compareResult = key.compareTo(t);
+
+        if (compareResult < 0) {
+            t.left = remove(key, t.left);
+        } else if (compareResult > 0) {
+            t.right = remove(key, t.right);
+        } else if (t.left != null && t.right != null) { // Two children
+            N min = t.right;
+            while (min.left != null) {
+                min = min.left;
+            }
+            t.prefix = min.prefix;
+            t.tail = min.tail;
+            copyPayload(min, t);
+            t.right = remove(new Key(min.prefix, min.tail), t.right);
+        } else {
+            t = (t.left != null) ? t.left : t.right;
+            size--;
+        }
+
+        return balance(t);
+    }
+
+    private static final int ALLOWED_IMBALANCE = 1;
+
+    // Assume t is either balanced or within one of being balanced
+    private N balance(N t) {
+        if (t == null) {
+            return t;
+        }
+
+        if (height(t.left) - height(t.right) > ALLOWED_IMBALANCE) {
+            if (height(t.left.left) >= height(t.left.right)) {
+                t = rotateWithLeftChild(t);
+            } else {
+                t.left = rotateWithRightChild(t.left);
+                t = rotateWithLeftChild(t);
+            }
+        } else if (height(t.right) - height(t.left) > ALLOWED_IMBALANCE) {
+            if (height(t.right.right) >= height(t.right.left)) {
+                t = rotateWithRightChild(t);
+            } else {
+                t.right = rotateWithLeftChild(t.right);
+                t = rotateWithRightChild(t);
+            }
+        }
+
+        t.height = Math.max(height(t.left), height(t.right)) + 1;
+        return t;
+    }
+
+    /**
+     * Return the height of node t, or -1, if null.
+     */
+    private int height(N t) {
+        return t == null ? -1 : t.height;
+    }
+
+    /**
+     * Rotate binary tree node with left child.
+     * Update heights, then return new root.
+     */
+    private N rotateWithLeftChild(N k2) {
+        N k1 = k2.left;
+        k2.left = k1.right;
+        k1.right = k2;
+        k2.height = Math.max(height(k2.left), height(k2.right)) + 1;
+        k1.height = Math.max(height(k1.left), height(k2)) + 1;
+        return k1;
+    }
+
+    /**
+     * Rotate binary tree node with right child.
+     * Update heights, then return new root.
+     */
+    private N rotateWithRightChild(N k1) {
+        N k2 = k1.right;
+        k1.right = k2.left;
+        k2.left = k1;
+        k1.height = Math.max(height(k1.left), height(k1.right)) + 1;
+        k2.height = Math.max(height(k2.right), height(k1)) + 1;
+        return k2;
+    }
+
+    /**
+     * A name folded for comparison: the first 8 bytes packed big-endian into a long (zero-padded), and the
+     * rest of the bytes, or null if there are none.
+     */
+    private static class Key {
+        final long prefix;
+        final byte[] tail;
+
+        Key(String name) {
+            if (isAscii(name)) {
+                // Common case: one folded byte per char, written straight into the prefix and tail
+                int length = name.length();
+                prefix = asciiPrefix(name);
+                if (length > Long.BYTES) {
+                    tail = new byte[length - Long.BYTES];
+                    for (int i = Long.BYTES; i < length; i++) {
+                        tail[i - Long.BYTES] = (byte) fold(name.charAt(i));
+                    }
+                } else {
+                    tail = null;
+                }
+                return;
+            }
+            byte[] bytes = fold(name).getBytes(StandardCharsets.UTF_8);
+            long packed = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                packed = (packed << 8) | (i < bytes.length ? bytes[i] & 0xFF : 0);
+            }
+            prefix = packed;
+            tail = bytes.length > Long.BYTES ? Arrays.copyOfRange(bytes, Long.BYTES, bytes.length) : null;
+        }
+
+        Key(long prefix, byte[] tail) {
+            this.prefix = prefix;
+            this.tail = tail;
+        }
+
+        // Compare with the key stored in a node; the tail is only touched when the inlined prefixes tie
+        int compareTo(NameNode<?> t) {
+            if (prefix != t.prefix) {
+                return Long.compareUnsigned(prefix, t.prefix);
+            }
+            if (tail == null || t.tail == null) {
+                return (tail == null ? 0 : 1) - (t.tail == null ? 0 : 1);
+            }
+            return Arrays.compareUnsigned(tail, t.tail);
+        }
+
+        // The prefix of an ASCII name, folded and packed without building the folded bytes
+        static long asciiPrefix(String name) {
+            int length = name.length();
+            long packed = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                packed = (packed << 8) | (i < length ? fold(name.charAt(i)) : 0);
+            }
+            return packed;
+        }
+
+        // Compare the bytes of an ASCII name past the prefix with a node's tail, folding as it goes
+        static int compareAsciiTail(String name, byte[] tail) {
+            int length = name.length() - Long.BYTES;
+            int tailLength = tail == null ? 0 : tail.length;
+            for (int i = 0; i < length && i < tailLength; i++) {
+                int difference = fold(name.charAt(Long.BYTES + i)) - (tail[i] & 0xFF);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            return Math.max(length, 0) - tailLength;
+        }
+
+        static boolean isAscii(String name) {
+            for (int i = 0; i < name.length(); i++) {
+                if (name.charAt(i) >= 0x80) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // The per-character fold String.compareToIgnoreCase applies before comparing
+        private static char fold(char c) {
+            return Character.toLowerCase(Character.toUpperCase(c));
+        }
+
+        private static String fold(String name) {
+            char[] chars = name.toCharArray();
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = fold(chars[i]);
+            }
+            return new String(chars);
+        }
+    }
+
+    /**
+     * A node's key, links and height; subclasses add the payload.
+     */
+    protected static class NameNode<N extends NameNode<N>> {
+        long prefix; // First 8 bytes of the folded key
+        byte[] tail; // Remaining bytes of the folded key, or null
+        N left; // Left child
+        N right; // Right child
+        int height; // Height
+    }
+
+    /** The tree root. */
+    private N root;
+
+    /** The number of names in the tree. */
+    private int size;
+
+    /** The node insertNode found or added; only set during a call. */
+    private N inserted;
+}
@@ -0,0 +1,49 @@
+/**
+ * @file: NameTree.java
+ * @description: This class maps case-insensitive names to values, on the name-keyed AVL Tree of NameKeyTree:
+ *               each node inlines the first 8 bytes of its folded name, so most comparisons are a single
+ *               unsigned long compare. NameIndex is the same tree mapping names to unboxed ints.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+public class NameTree<V> extends NameKeyTree<NameTree.ValueNode<V>> {
+    /**
+     * Construct the tree.
+     */
+    public NameTree() {
+    }
+
+    /**
+     * Associate a value with a name, replacing the value already stored under that name (ignoring case).
+     * @param name the key.
+     * @param value the value.
+     */
+    public void put(String name, V value) {
+        insertNode(name).value = value;
+    }
+
+    /**
+     * Find the value stored under a name (ignoring case).
+     * @param name the key.
+     * @return the value, or null if the name is not in the tree.
+     */
+    public V get(String name) {
+        ValueNode<V> t = findNode(name);
+        return t == null ? null : t.value;
+    }
+
+    @Override
+    protected ValueNode<V> newNode() {
+        return new ValueNode<>();
+    }
+
+    @Override
+    protected void copyPayload(ValueNode<V> from, ValueNode<V> to) {
+        to.value = from.value;
+    }
+
+    protected static class ValueNode<V> extends NameKeyTree.NameNode<ValueNode<V>> {
+        V value; // The data in the node
+    }
+}
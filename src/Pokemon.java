@@ -190,6 +190,26 @@ public class Pokemon implements Comparable<Pokemon> {
         return name.equalsIgnoreCase(pokemon.name); // Compare only by name
     }
 
+    @Override
+    public int hashCode() {
+        // Hash the name case-insensitively, folding each char the way compareToIgnoreCase does,
+        // so that Pokemon equal by name always hash alike
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return h;
+    }
+
+    // Check every field, not just the name: equals and compareTo treat two versions of a record as the same
+    public boolean sameRecord(Pokemon other) {
+        return id == other.id && name.equals(other.name) && type1.equals(other.type1)
+                && type2.equals(other.type2) && total == other.total && hp == other.hp
+                && attack == other.attack && defense == other.defense
+                && specialAttack == other.specialAttack && specialDefense == other.specialDefense
+                && speed == other.speed && generation == other.generation && isLegendary == other.isLegendary;
+    }
+
     @Override
     public int compareTo(Pokemon other) {
         return this.name.compareToIgnoreCase(other.name); // Compare only by name
@@ -0,0 +1,64 @@
+/**
+ * @file: PokemonCodec.java
+ * @description: This class encodes Pokemon records in the compact binary form QueryServer and its clients
+ *               exchange: the three strings as modified UTF-8 (a 2-byte length and mostly one byte per char),
+ *               the stats and generation as 2-byte shorts (they all fit), the id as an int and the legendary
+ *               flag as a byte. A typical record takes about 40 bytes, against ~90 as a CSV line.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public final class PokemonCodec {
+    private PokemonCodec() {
+    }
+
+    /**
+     * Write one record.
+     * @param out the stream to write to.
+     * @param pokemon the record.
+     */
+    public static void write(DataOutput out, Pokemon pokemon) throws IOException {
+        out.writeInt(pokemon.getId());
+        out.writeUTF(pokemon.getName());
+        out.writeUTF(pokemon.getType1());
+        out.writeUTF(pokemon.getType2());
+        out.writeShort(pokemon.getTotal());
+        out.writeShort(pokemon.getHp());
+        out.writeShort(pokemon.getAttack());
+        out.writeShort(pokemon.getDefense());
+        out.writeShort(pokemon.getSpecialAttack());
+        out.writeShort(pokemon.getSpecialDefense());
+        out.writeShort(pokemon.getSpeed());
+        out.writeShort(pokemon.getGeneration());
+        out.writeBoolean(pokemon.getIsLegendary());
+    }
+
+    /**
+     * Read one record written by write.
+     * @param in the stream to read from.
+     * @return the record.
+     */
+    public static Pokemon read(DataInput in) throws IOException {
+        int id = in.readInt();
+        String name = in.readUTF();
+        String type1 = in.readUTF();
+        String type2 = in.readUTF();
+        return new Pokemon(id, name, type1, type2, in.readShort(), in.readShort(), in.readShort(), in.readShort(),
+                in.readShort(), in.readShort(), in.readShort(), in.readShort(), in.readBoolean());
+    }
+
+    /**
+     * Build a key for looking a record up by name; Pokemon compare by name alone.
+     * @param name the name.
+     * @return a record with only the name set.
+     */
+    public static Pokemon key(String name) {
+        Pokemon key = new Pokemon();
+        key.setName(name);
+        return key;
+    }
+}
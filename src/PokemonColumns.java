@@ -0,0 +1,258 @@
+/**
+ * @file: PokemonColumns.java
+ * @description: This class stores Pokemon column by column instead of as one object per record. Each numeric
+ *               field is a primitive int array indexed by row id, the two types are dictionary-encoded into
+ *               byte arrays, and the legendary flags are a BitSet, so a filter on a stat streams one dense array
+ *               instead of dereferencing a Pokemon per row. Scans build their result 64 rows at a time into
+ *               the words of a BitSet with a branch-free range check, which keeps the loops free of
+ *               data-dependent branches; results of several scans combine with BitSet.and/or. Names are indexed
+ *               by a NameIndex that maps each name to its row id, stored unboxed in the index's nodes. Adding
+ *               a name that is already present overwrites its row.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PokemonColumns {
+    /**
+     * The numeric columns.
+     */
+    public enum Stat {
+        ID, TOTAL, HP, ATTACK, DEFENSE, SPECIAL_ATTACK, SPECIAL_DEFENSE, SPEED, GENERATION
+    }
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_TYPES = 256; // Type codes are stored in a byte
+
+    private final int[][] stats = new int[Stat.values().length][INITIAL_CAPACITY];
+    private byte[] type1 = new byte[INITIAL_CAPACITY];
+    private byte[] type2 = new byte[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private final BitSet legendary = new BitSet();
+    private final List<String> typeNames = new ArrayList<>();
+    private final Map<String, Integer> typeCodes = new HashMap<>();
+    private final NameIndex nameIndex = new NameIndex();
+    private int rows;
+
+    /**
+     * Add a record, or overwrite the row of the record with the same name.
+     * @param pokemon the record.
+     * @return the record's row id.
+     */
+    public int add(Pokemon pokemon) {
+        int row = nameIndex.get(pokemon.getName());
+        if (row == NameIndex.NOT_FOUND) {
+            ensureCapacity(rows + 1);
+            row = rows++;
+            nameIndex.put(pokemon.getName(), row);
+        }
+        names[row] = pokemon.getName();
+        stats[Stat.ID.ordinal()][row] = pokemon.getId();
+        stats[Stat.TOTAL.ordinal()][row] = pokemon.getTotal();
+        stats[Stat.HP.ordinal()][row] = pokemon.getHp();
+        stats[Stat.ATTACK.ordinal()][row] = pokemon.getAttack();
+        stats[Stat.DEFENSE.ordinal()][row] = pokemon.getDefense();
+        stats[Stat.SPECIAL_ATTACK.ordinal()][row] = pokemon.getSpecialAttack();
+        stats[Stat.SPECIAL_DEFENSE.ordinal()][row] = pokemon.getSpecialDefense();
+        stats[Stat.SPEED.ordinal()][row] = pokemon.getSpeed();
+        stats[Stat.GENERATION.ordinal()][row] = pokemon.getGeneration();
+        type1[row] = typeCode(pokemon.getType1());
+        type2[row] = typeCode(pokemon.getType2());
+        legendary.set(row, pokemon.getIsLegendary());
+        return row;
+    }
+
+    /**
+     * Get the number of rows.
+     * @return the number of records stored.
+     */
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * Find a record's row by name, ignoring case as Pokemon.compareTo does.
+     * @param name the name.
+     * @return the row id, or -1 if there is no such record.
+     */
+    public int rowOf(String name) {
+        return nameIndex.get(name);
+    }
+
+    /**
+     * Rebuild a row as a Pokemon.
+     * @param row the row id.
+     * @return a new Pokemon holding the row's fields.
+     */
+    public Pokemon get(int row) {
+        checkRow(row);
+        return new Pokemon(value(Stat.ID, row), names[row], typeNames.get(type1[row] & 0xFF),
+                typeNames.get(type2[row] & 0xFF), value(Stat.TOTAL, row), value(Stat.HP, row),
+                value(Stat.ATTACK, row), value(Stat.DEFENSE, row), value(Stat.SPECIAL_ATTACK, row),
+                value(Stat.SPECIAL_DEFENSE, row), value(Stat.SPEED, row), value(Stat.GENERATION, row),
+                legendary.get(row));
+    }
+
+    /**
+     * Get one field of one row without building a Pokemon.
+     * @param stat the column.
+     * @param row the row id.
+     * @return the value.
+     */
+    public int value(Stat stat, int row) {
+        checkRow(row);
+        return stats[stat.ordinal()][row];
+    }
+
+    /**
+     * Find the rows whose value in a column lies in a range.
+     * @param stat the column.
+     * @param min the smallest value to match.
+     * @param max the largest value to match.
+     * @return the matching row ids.
+     */
+    public BitSet where(Stat stat, int min, int max) {
+        int[] values = stats[stat.ordinal()];
+        long span = (long) max - min;
+        long[] words = new long[(rows + 63) >>> 6];
+        for (int w = 0; w < words.length; w++) {
+            int base = w << 6;
+            int end = Math.min(base + 64, rows);
+            long word = 0;
+            for (int i = base; i < end; i++) {
+                // v is in [min, max] iff both v - min and max - v are non-negative: test the sign bits together
+                long offset = values[i] - (long) min;
+                long outside = (offset | (span - offset)) >>> 63;
+                word |= (outside ^ 1) << (i - base);
+            }
+            words[w] = word;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Count the rows whose value in a column lies in a range, without materialising them.
+     * @param stat the column.
+     * @param min the smallest value to match.
+     * @param max the largest value to match.
+     * @return the number of matching rows.
+     */
+    public int count(Stat stat, int min, int max) {
+        int[] values = stats[stat.ordinal()];
+        long span = (long) max - min;
+        int count = 0;
+        for (int i = 0; i < rows; i++) {
+            long offset = values[i] - (long) min;
+            count += (int) (((offset | (span - offset)) >>> 63) ^ 1);
+        }
+        return count;
+    }
+
+    /**
+     * Find the rows with a type as either their primary or secondary type.
+     * @param type the type name, e.g. "Fire".
+     * @return the matching row ids; empty if no row has the type.
+     */
+    public BitSet whereType(String type) {
+        Integer code = typeCodes.get(type);
+        if (code == null) {
+            return new BitSet();
+        }
+        byte wanted = (byte) (int) code;
+        long[] words = new long[(rows + 63) >>> 6];
+        for (int w = 0; w < words.length; w++) {
+            int base = w << 6;
+            int end = Math.min(base + 64, rows);
+            long word = 0;
+            for (int i = base; i < end; i++) {
+                // x - 1 is negative only for x == 0, so its sign bit is 1 exactly when the codes are equal
+                int match = ((((type1[i] ^ wanted) & 0xFF) - 1) >>> 31) | ((((type2[i] ^ wanted) & 0xFF) - 1) >>> 31);
+                word |= (long) match << (i - base);
+            }
+            words[w] = word;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Get the legendary rows.
+     * @return a copy of the legendary flags, one bit per row.
+     */
+    public BitSet legendary() {
+        return (BitSet) legendary.clone();
+    }
+
+    /**
+     * Sum a column over a set of rows.
+     * @param stat the column.
+     * @param selected the row ids to include, e.g. the result of where.
+     * @return the sum.
+     */
+    public long sum(Stat stat, BitSet selected) {
+        int[] values = stats[stat.ordinal()];
+        long sum = 0;
+        for (int row = selected.nextSetBit(0); row >= 0 && row < rows; row = selected.nextSetBit(row + 1)) {
+            sum += values[row];
+        }
+        return sum;
+    }
+
+    /**
+     * Sum a column over every row.
+     * @param stat the column.
+     * @return the sum.
+     */
+    public long sum(Stat stat) {
+        int[] values = stats[stat.ordinal()];
+        long sum = 0;
+        for (int i = 0; i < rows; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    // Memory held by the columns themselves, not counting names or the name index
+    public long columnBytes() {
+        long capacity = names.length;
+        return stats.length * capacity * Integer.BYTES + 2 * capacity + legendary.size() / 8;
+    }
+
+    // Dictionary code for a type, assigning the next one to a type not seen before
+    private byte typeCode(String type) {
+        Integer code = typeCodes.get(type);
+        if (code == null) {
+            if (typeNames.size() == MAX_TYPES) {
+                throw new IllegalStateException("More than " + MAX_TYPES + " distinct types");
+            }
+            code = typeNames.size();
+            typeNames.add(type);
+            typeCodes.put(type, code);
+        }
+        return (byte) (int) code;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= names.length) {
+            return;
+        }
+        int capacity = Math.max(needed, 2 * names.length);
+        for (int s = 0; s < stats.length; s++) {
+            stats[s] = Arrays.copyOf(stats[s], capacity);
+        }
+        type1 = Arrays.copyOf(type1, capacity);
+        type2 = Arrays.copyOf(type2, capacity);
+        names = Arrays.copyOf(names, capacity);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+        }
+    }
+}
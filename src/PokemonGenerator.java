@@ -0,0 +1,132 @@
+/**
+ * @file: PokemonGenerator.java
+ * @description: This class generates synthetic Pokemon-like records for scaling experiments that need more
+ *               than the ~800 rows in Pokemon.csv. Output is fully determined by the seed. Names are unique
+ *               (a base-26 rendering of the record index, padded with random letters to the requested length)
+ *               and the key distribution controls the order records come out in and how much of each name is
+ *               a shared prefix.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.util.SplittableRandom;
+
+public class PokemonGenerator {
+    /**
+     * How generated names are ordered and shaped.
+     */
+    public enum Distribution {
+        /** Names come out in ascending order (the worst case for an unbalanced BST). */
+        SEQUENTIAL,
+        /** Names come out in a random order. */
+        RANDOM,
+        /** Random order, and every name starts with the same long prefix, so each comparison scans it. */
+        PREFIXED
+    }
+
+    private static final String[] TYPES = {
+            "Normal", "Fire", "Water", "Grass", "Electric", "Ice", "Fighting", "Poison", "Ground",
+            "Flying", "Psychic", "Bug", "Rock", "Ghost", "Dragon", "Dark", "Steel", "Fairy"
+    };
+
+    private static final String SHARED_PREFIX = "MegaPokemonVariant";
+
+    private final long seed;
+    private final Distribution distribution;
+    private final int nameLength;
+
+    /**
+     * Construct a generator.
+     * @param seed the random seed; the same seed always produces the same records.
+     * @param distribution the key distribution.
+     * @param nameLength the minimum length of generated names.
+     */
+    public PokemonGenerator(long seed, Distribution distribution, int nameLength) {
+        if (nameLength < 1) {
+            throw new IllegalArgumentException("Name length must be positive: " + nameLength);
+        }
+        this.seed = seed;
+        this.distribution = distribution;
+        this.nameLength = nameLength;
+    }
+
+    /**
+     * Generate n records.
+     * @param n the number of records.
+     * @return the records, in the order given by the distribution.
+     */
+    public Pokemon[] generate(int n) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int width = keyWidth(n);
+        String prefix = distribution == Distribution.PREFIXED ? SHARED_PREFIX : "";
+        Pokemon[] records = new Pokemon[n];
+        for (int i = 0; i < n; i++) {
+            records[i] = makePokemon(i + 1, prefix + name(i, width, random), random);
+        }
+        if (distribution != Distribution.SEQUENTIAL) {
+            shuffle(records, random);
+        }
+        return records;
+    }
+
+    /**
+     * Produce a copy of records in a random order, for probing a tree in an order unrelated to insertion.
+     * @param records the records to copy.
+     * @return the shuffled copy.
+     */
+    public Pokemon[] shuffled(Pokemon[] records) {
+        Pokemon[] copy = records.clone();
+        shuffle(copy, new SplittableRandom(~seed));
+        return copy;
+    }
+
+    // Number of base-26 digits needed to give every index below n a distinct key
+    private static int keyWidth(int n) {
+        int width = 1;
+        for (long capacity = 26; capacity < n; capacity *= 26) {
+            width++;
+        }
+        return width;
+    }
+
+    // Fixed-width base-26 rendering of i (so names sort in index order), then random padding
+    private String name(int i, int width, SplittableRandom random) {
+        char[] name = new char[Math.max(width, nameLength)];
+        int value = i;
+        for (int d = width - 1; d >= 0; d--) {
+            name[d] = (char) ((d == 0 ? 'A' : 'a') + value % 26);
+            value /= 26;
+        }
+        for (int d = width; d < name.length; d++) {
+            name[d] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(name);
+    }
+
+    // Build one record with plausible stats; total is the sum of the six base stats as in Pokemon.csv
+    private static Pokemon makePokemon(int id, String name, SplittableRandom random) {
+        int hp = 20 + random.nextInt(140);
+        int attack = 20 + random.nextInt(140);
+        int defense = 20 + random.nextInt(140);
+        int specialAttack = 20 + random.nextInt(140);
+        int specialDefense = 20 + random.nextInt(140);
+        int speed = 20 + random.nextInt(140);
+        int total = hp + attack + defense + specialAttack + specialDefense + speed;
+        String type1 = TYPES[random.nextInt(TYPES.length)];
+        String type2 = random.nextInt(2) == 0 ? "" : TYPES[random.nextInt(TYPES.length)];
+        int generation = 1 + random.nextInt(6);
+        boolean isLegendary = random.nextInt(100) < 8;
+        return new Pokemon(id, name, type1, type2, total, hp, attack, defense,
+                specialAttack, specialDefense, speed, generation, isLegendary);
+    }
+
+    // Fisher-Yates shuffle
+    private static void shuffle(Pokemon[] records, SplittableRandom random) {
+        for (int i = records.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Pokemon tmp = records[i];
+            records[i] = records[j];
+            records[j] = tmp;
+        }
+    }
+}
@@ -10,14 +10,28 @@ import java.io.FileOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Scanner;
 
 public class Proj2 {
-    public static void main(String[] args) throws IOException {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // "--sweep" hands the rest of the arguments to the synthetic-data scaling sweep
+        if (args.length > 0 && args[0].equals("--sweep")) {
+            ScalingSweep.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // "--reload" diffs a new dataset against a loaded tree instead of rebuilding it
+        if (args.length > 0 && args[0].equals("--reload")) {
+            IncrementalReload.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         // Use command line arguments to specify the input file
         if (args.length != 2) {
             System.err.println("Usage: java Proj2 <input file> <number of lines>");
+            System.err.println("       java Proj2 --sweep [sweep options]");
+            System.err.println("       java Proj2 --reload <old file> <new file> | --reload --synthetic [n]");
             System.exit(1);
         }
 
@@ -41,17 +55,43 @@ public class Proj2 {
         AvlTree<Pokemon> avlSorted = new AvlTree<>();
         AvlTree<Pokemon> avlRandom = new AvlTree<>();
 
-        // Measure insertion times
-        long bstSortedInsertTime = measureInsertionTime(bstSorted, sortedPokemon);
-        long bstRandomInsertTime = measureInsertionTime(bstRandom, randomizedPokemon);
-        long avlSortedInsertTime = measureInsertionTime(avlSorted, sortedPokemon);
-        long avlRandomInsertTime = measureInsertionTime(avlRandom, randomizedPokemon);
+        // Publish the hot-path counters over JMX when run with -Dtree.metrics=true
+        if (TreeMetrics.ENABLED) {
+            bstSorted.registerMetricsMBean("BST (Sorted)");
+            bstRandom.registerMetricsMBean("BST (Random)");
+            avlSorted.registerMetricsMBean("AVL (Sorted)");
+            avlRandom.registerMetricsMBean("AVL (Random)");
+        }
+
+        // Per-operation latencies for each tree/order combination
+        LatencyHistogram bstSortedInsertLatency = new LatencyHistogram();
+        LatencyHistogram bstRandomInsertLatency = new LatencyHistogram();
+        LatencyHistogram avlSortedInsertLatency = new LatencyHistogram();
+        LatencyHistogram avlRandomInsertLatency = new LatencyHistogram();
+        LatencyHistogram bstSortedSearchLatency = new LatencyHistogram();
+        LatencyHistogram bstRandomSearchLatency = new LatencyHistogram();
+        LatencyHistogram avlSortedSearchLatency = new LatencyHistogram();
+        LatencyHistogram avlRandomSearchLatency = new LatencyHistogram();
+
+        // Measure insertion times, probing what each build allocates and collects
+        MemoryProbe probe = MemoryProbe.start();
+        long bstSortedInsertTime = measureInsertionTime(bstSorted, sortedPokemon, bstSortedInsertLatency);
+        MemoryProbe.Sample bstSortedMemory = probe.stop();
+        probe = MemoryProbe.start();
+        long bstRandomInsertTime = measureInsertionTime(bstRandom, randomizedPokemon, bstRandomInsertLatency);
+        MemoryProbe.Sample bstRandomMemory = probe.stop();
+        probe = MemoryProbe.start();
+        long avlSortedInsertTime = measureInsertionTime(avlSorted, sortedPokemon, avlSortedInsertLatency);
+        MemoryProbe.Sample avlSortedMemory = probe.stop();
+        probe = MemoryProbe.start();
+        long avlRandomInsertTime = measureInsertionTime(avlRandom, randomizedPokemon, avlRandomInsertLatency);
+        MemoryProbe.Sample avlRandomMemory = probe.stop();
 
         // Measure search times
-        long bstSortedSearchTime = measureSearchTime(bstSorted, pokemonList);
-        long bstRandomSearchTime = measureSearchTime(bstRandom, pokemonList);
-        long avlSortedSearchTime = measureSearchTime(avlSorted, pokemonList);
-        long avlRandomSearchTime = measureSearchTime(avlRandom, pokemonList);
+        long bstSortedSearchTime = measureSearchTime(bstSorted, pokemonList, bstSortedSearchLatency);
+        long bstRandomSearchTime = measureSearchTime(bstRandom, pokemonList, bstRandomSearchLatency);
+        long avlSortedSearchTime = measureSearchTime(avlSorted, pokemonList, avlSortedSearchLatency);
+        long avlRandomSearchTime = measureSearchTime(avlRandom, pokemonList, avlRandomSearchLatency);
 
         // Convert nanoseconds to seconds
         double bstSortedInsertTimeSec = bstSortedInsertTime / 1e9;
@@ -70,15 +110,59 @@ public class Proj2 {
                 bstSortedSearchTimeSec, bstRandomSearchTimeSec,
                 avlSortedSearchTimeSec, avlRandomSearchTimeSec);
 
+        // Collect the latency distributions, one row per tree/order/operation
+        ArrayList<LatencyRow> latencyRows = new ArrayList<>();
+        latencyRows.add(new LatencyRow("BST", "sorted", "insert", bstSortedInsertLatency, bstSortedInsertTime));
+        latencyRows.add(new LatencyRow("BST", "random", "insert", bstRandomInsertLatency, bstRandomInsertTime));
+        latencyRows.add(new LatencyRow("AVL", "sorted", "insert", avlSortedInsertLatency, avlSortedInsertTime));
+        latencyRows.add(new LatencyRow("AVL", "random", "insert", avlRandomInsertLatency, avlRandomInsertTime));
+        latencyRows.add(new LatencyRow("BST", "sorted", "search", bstSortedSearchLatency, bstSortedSearchTime));
+        latencyRows.add(new LatencyRow("BST", "random", "search", bstRandomSearchLatency, bstRandomSearchTime));
+        latencyRows.add(new LatencyRow("AVL", "sorted", "search", avlSortedSearchLatency, avlSortedSearchTime));
+        latencyRows.add(new LatencyRow("AVL", "random", "search", avlRandomSearchLatency, avlRandomSearchTime));
+        printLatencyToConsole(latencyRows);
+
+        // Collect the memory footprint of each build, one row per tree/order
+        double payloadBytes = averagePayloadSize(pokemonList);
+        long bstNodeLayout = MemoryProbe.shallowSize(Node.class);
+        long avlNodeLayout = avlNodeSize();
+        ArrayList<MemoryRow> memoryRows = new ArrayList<>();
+        memoryRows.add(new MemoryRow("BST", "sorted", bstSorted.size(), bstSortedMemory, bstNodeLayout, payloadBytes));
+        memoryRows.add(new MemoryRow("BST", "random", bstRandom.size(), bstRandomMemory, bstNodeLayout, payloadBytes));
+        memoryRows.add(new MemoryRow("AVL", "sorted", avlSorted.size(), avlSortedMemory, avlNodeLayout, payloadBytes));
+        memoryRows.add(new MemoryRow("AVL", "random", avlRandom.size(), avlRandomMemory, avlNodeLayout, payloadBytes));
+        printMemoryToConsole(memoryRows);
+
+        if (TreeMetrics.ENABLED) {
+            printMetricsToConsole(bstSorted, bstRandom, avlSorted, avlRandom);
+        }
+
         // Step 5: Write results to output.txt
         writeResultsToFile(numLines, bstSortedInsertTimeSec, bstRandomInsertTimeSec,
                 avlSortedInsertTimeSec, avlRandomInsertTimeSec,
                 bstSortedSearchTimeSec, bstRandomSearchTimeSec,
                 avlSortedSearchTimeSec, avlRandomSearchTimeSec);
+
+        // Step 6: Write the latency percentiles to latency.csv
+        writeLatencyToFile(numLines, latencyRows);
+
+        // Step 7: Write the memory footprint to memory.csv
+        writeMemoryToFile(numLines, memoryRows);
+    }
+
+    // Method to load Pokemon data from the CSV file, reporting a missing or unreadable file on stderr
+    static void loadPokemonData(String csvFile, ArrayList<Pokemon> pokemonList, int numLines) {
+        try {
+            readPokemonData(csvFile, pokemonList, numLines);
+        } catch (FileNotFoundException e) {
+            System.err.println("CSV file not found: " + csvFile);
+        } catch (IOException e) {
+            System.err.println("Error reading CSV file " + csvFile + ": " + e.getMessage());
+        }
     }
 
-    // Method to load Pokemon data from the CSV file
-    private static void loadPokemonData(String csvFile, ArrayList<Pokemon> pokemonList, int numLines) {
+    // Load Pokemon data from the CSV file, failing on a missing or unreadable file instead of returning less
+    static void readPokemonData(String csvFile, ArrayList<Pokemon> pokemonList, int numLines) throws IOException {
         try (Scanner scanner = new Scanner(new File(csvFile))) {
             // Skip the first line (header)
             if (scanner.hasNextLine()) {
@@ -114,43 +198,61 @@ public class Proj2 {
                     count++;
                 }
             }
-        } catch (FileNotFoundException e) {
-            System.err.println("CSV file not found: " + csvFile);
+            // Scanner swallows read errors and just reports end of input; surface them
+            if (scanner.ioException() != null) {
+                throw scanner.ioException();
+            }
         }
     }
 
-    // Helper method to measure insertion time for BST
-    private static long measureInsertionTime(BST<Pokemon> bst, ArrayList<Pokemon> data) {
+    // Helper method to measure insertion time for BST, recording each operation's latency
+    private static long measureInsertionTime(BST<Pokemon> bst, ArrayList<Pokemon> data, LatencyHistogram latency) {
         long startTime = System.nanoTime();
+        long opStart = startTime;
         for (Pokemon pokemon : data) {
             bst.insert(pokemon);
+            long opEnd = System.nanoTime();
+            latency.record(opEnd - opStart);
+            opStart = opEnd;
         }
         return System.nanoTime() - startTime;
     }
 
-    // Helper method to measure insertion time for AVL Tree
-    private static long measureInsertionTime(AvlTree<Pokemon> avl, ArrayList<Pokemon> data) {
+    // Helper method to measure insertion time for AVL Tree, recording each operation's latency
+    private static long measureInsertionTime(AvlTree<Pokemon> avl, ArrayList<Pokemon> data, LatencyHistogram latency) {
         long startTime = System.nanoTime();
+        long opStart = startTime;
         for (Pokemon pokemon : data) {
             avl.insert(pokemon);
+            long opEnd = System.nanoTime();
+            latency.record(opEnd - opStart);
+            opStart = opEnd;
         }
         return System.nanoTime() - startTime;
     }
 
-    // Helper method to measure search time for BST
-    private static long measureSearchTime(BST<Pokemon> bst, ArrayList<Pokemon> data) {
+    // Helper method to measure search time for BST, recording each operation's latency
+    private static long measureSearchTime(BST<Pokemon> bst, ArrayList<Pokemon> data, LatencyHistogram latency) {
         long startTime = System.nanoTime();
+        long opStart = startTime;
         for (Pokemon pokemon : data) {
             bst.search(pokemon);
+            long opEnd = System.nanoTime();
+            latency.record(opEnd - opStart);
+            opStart = opEnd;
         }
         return System.nanoTime() - startTime;
     }
 
-    // Helper method to measure search time for AVL Tree
-    private static long measureSearchTime(AvlTree<Pokemon> avl, ArrayList<Pokemon> data) {
+    // Helper method to measure search time for AVL Tree, recording each operation's latency
+    private static long measureSearchTime(AvlTree<Pokemon> avl, ArrayList<Pokemon> data, LatencyHistogram latency) {
         long startTime = System.nanoTime();
+        long opStart = startTime;
         for (Pokemon pokemon : data) {
             avl.contains(pokemon);
+            long opEnd = System.nanoTime();
+            latency.record(opEnd - opStart);
+            opStart = opEnd;
         }
         return System.nanoTime() - startTime;
     }
@@ -173,6 +275,18 @@ public class Proj2 {
         System.out.println("-------------------------------------------\n");
     }
 
+    // Helper method to print the hot-path counters collected during insertion and search
+    private static void printMetricsToConsole(BST<Pokemon> bstSorted, BST<Pokemon> bstRandom,
+                                              AvlTree<Pokemon> avlSorted, AvlTree<Pokemon> avlRandom) {
+        System.out.println("Tree metrics (insert + search):");
+        System.out.println("-------------------------------------------");
+        System.out.println("BST (Sorted): " + bstSorted.metricsSnapshot());
+        System.out.println("BST (Random): " + bstRandom.metricsSnapshot());
+        System.out.println("AVL (Sorted): " + avlSorted.metricsSnapshot());
+        System.out.println("AVL (Random): " + avlRandom.metricsSnapshot());
+        System.out.println("-------------------------------------------\n");
+    }
+
     // Helper method to write results to output.txt
     private static void writeResultsToFile(int numLines, double bstSortedInsert, double bstRandomInsert,
                                            double avlSortedInsert, double avlRandomInsert,
@@ -186,4 +300,166 @@ public class Proj2 {
         output.write(result.getBytes());
         output.close();
     }
-}
\ No newline at end of file
+
+    // Helper method to print the latency percentiles to console in a human-readable format
+    private static void printLatencyToConsole(ArrayList<LatencyRow> rows) {
+        System.out.println("Per-operation latency (ns):");
+        System.out.println("-------------------------------------------");
+        System.out.printf("%-4s %-7s %-7s %12s %9s %9s %9s %9s %9s%n",
+                "Tree", "Order", "Op", "ops/sec", "p50", "p90", "p99", "p99.9", "max");
+        for (LatencyRow row : rows) {
+            LatencyHistogram h = row.latency;
+            System.out.printf("%-4s %-7s %-7s %12.0f %9d %9d %9d %9d %9d%n",
+                    row.tree, row.order, row.operation, row.opsPerSecond(),
+                    h.valueAtPercentile(50), h.valueAtPercentile(90), h.valueAtPercentile(99),
+                    h.valueAtPercentile(99.9), h.getMax());
+        }
+        System.out.println("-------------------------------------------\n");
+    }
+
+    // Helper method to append the latency percentiles to latency.csv, writing the header row first if the file is new
+    private static void writeLatencyToFile(int numLines, ArrayList<LatencyRow> rows) throws IOException {
+        File file = new File("latency.csv");
+        boolean writeHeader = !file.exists() || file.length() == 0;
+        StringBuilder result = new StringBuilder();
+        if (writeHeader) {
+            result.append(LATENCY_HEADER).append("\n");
+        }
+        for (LatencyRow row : rows) {
+            LatencyHistogram h = row.latency;
+            result.append(numLines).append(',')
+                    .append(row.tree).append(',')
+                    .append(row.order).append(',')
+                    .append(row.operation).append(',')
+                    .append(h.getTotalCount()).append(',')
+                    .append(String.format("%.1f", row.opsPerSecond())).append(',')
+                    .append(String.format("%.1f", h.getMean())).append(',')
+                    .append(h.valueAtPercentile(50)).append(',')
+                    .append(h.valueAtPercentile(90)).append(',')
+                    .append(h.valueAtPercentile(99)).append(',')
+                    .append(h.valueAtPercentile(99.9)).append(',')
+                    .append(h.getMax()).append("\n");
+        }
+        try (FileOutputStream output = new FileOutputStream(file, true)) {
+            output.write(result.toString().getBytes());
+        }
+    }
+
+    private static final String LATENCY_HEADER =
+            "n,tree,order,operation,count,ops_per_sec,mean_ns,p50_ns,p90_ns,p99_ns,p999_ns,max_ns";
+
+    // One tree/order/operation combination and its measured latencies
+    private static class LatencyRow {
+        final String tree;
+        final String order;
+        final String operation;
+        final LatencyHistogram latency;
+        final long totalNanos;
+
+        LatencyRow(String tree, String order, String operation, LatencyHistogram latency, long totalNanos) {
+            this.tree = tree;
+            this.order = order;
+            this.operation = operation;
+            this.latency = latency;
+            this.totalNanos = totalNanos;
+        }
+
+        // Throughput over the whole phase
+        double opsPerSecond() {
+            return totalNanos == 0 ? 0.0 : latency.getTotalCount() * 1e9 / totalNanos;
+        }
+    }
+
+    // Helper method to estimate the average retained size of a record and its strings
+    private static double averagePayloadSize(ArrayList<Pokemon> data) {
+        long total = 0;
+        for (Pokemon pokemon : data) {
+            total += MemoryProbe.pokemonSize(pokemon);
+        }
+        return data.isEmpty() ? 0.0 : (double) total / data.size();
+    }
+
+    // Helper method to estimate the size of AvlTree's private node class
+    private static long avlNodeSize() {
+        try {
+            return MemoryProbe.shallowSize(Class.forName("AvlTree$AvlNode"));
+        } catch (ClassNotFoundException e) {
+            return -1;
+        }
+    }
+
+    // Helper method to print the memory footprint to console in a human-readable format
+    private static void printMemoryToConsole(ArrayList<MemoryRow> rows) {
+        System.out.println("Memory footprint per entry (bytes):");
+        System.out.println("-------------------------------------------");
+        System.out.printf("%-4s %-7s %10s %11s %8s %9s %10s %5s %6s%n",
+                "Tree", "Order", "node", "node layout", "payload", "overhead", "alloc KB", "GCs", "GC ms");
+        for (MemoryRow row : rows) {
+            System.out.printf("%-4s %-7s %10.1f %11d %8.1f %8.1f%% %10.1f %5d %6d%n",
+                    row.tree, row.order, row.nodeBytes(), row.nodeLayoutBytes, row.payloadBytes,
+                    row.overheadPercent(), row.build.getAllocatedBytes() / 1024.0,
+                    row.build.getGcCount(), row.build.getGcMillis());
+        }
+        System.out.println("-------------------------------------------\n");
+    }
+
+    // Helper method to append the memory footprint to memory.csv, writing the header row first if the file is new
+    private static void writeMemoryToFile(int numLines, ArrayList<MemoryRow> rows) throws IOException {
+        File file = new File("memory.csv");
+        boolean writeHeader = !file.exists() || file.length() == 0;
+        StringBuilder result = new StringBuilder();
+        if (writeHeader) {
+            result.append(MEMORY_HEADER).append("\n");
+        }
+        for (MemoryRow row : rows) {
+            result.append(numLines).append(',')
+                    .append(row.tree).append(',')
+                    .append(row.order).append(',')
+                    .append(row.entries).append(',')
+                    .append(String.format("%.1f", row.nodeBytes())).append(',')
+                    .append(row.nodeLayoutBytes).append(',')
+                    .append(String.format("%.1f", row.payloadBytes)).append(',')
+                    .append(String.format("%.1f", row.overheadPercent())).append(',')
+                    .append(row.build.getAllocatedBytes()).append(',')
+                    .append(row.build.getGcCount()).append(',')
+                    .append(row.build.getGcMillis()).append("\n");
+        }
+        try (FileOutputStream output = new FileOutputStream(file, true)) {
+            output.write(result.toString().getBytes());
+        }
+    }
+
+    private static final String MEMORY_HEADER = "n,tree,order,entries,node_bytes,node_layout_bytes,payload_bytes,"
+            + "overhead_pct,build_alloc_bytes,build_gc_count,build_gc_ms";
+
+    // One tree/order build and what it cost in memory
+    private static class MemoryRow {
+        final String tree;
+        final String order;
+        final int entries;
+        final MemoryProbe.Sample build;
+        final long nodeLayoutBytes;
+        final double payloadBytes;
+
+        MemoryRow(String tree, String order, int entries, MemoryProbe.Sample build, long nodeLayoutBytes,
+                  double payloadBytes) {
+            this.tree = tree;
+            this.order = order;
+            this.entries = entries;
+            this.build = build;
+            this.nodeLayoutBytes = nodeLayoutBytes;
+            this.payloadBytes = payloadBytes;
+        }
+
+        // Inserting allocates nothing but nodes, so the build's allocation divided by the entries is the node size
+        double nodeBytes() {
+            return build.bytesPer(entries);
+        }
+
+        // Share of each entry's memory spent on the tree rather than on the record
+        double overheadPercent() {
+            double node = nodeBytes();
+            return node + payloadBytes == 0 ? 0.0 : 100.0 * node / (node + payloadBytes);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * @file: QueryLoadGen.java
+ * @description: This program drives load against a QueryServer and reports throughput and latency
+ *               percentiles. Each connection keeps a fixed number of requests in flight (the pipeline depth),
+ *               sending a new one as each response comes back, and records every request's round trip,
+ *               queueing included, in a LatencyHistogram. Requests are a mix of batched GETs (mostly hits, a
+ *               tenth misses), short RANGE scans and batched INSERTs of new records.
+ *
+ *               Usage: java QueryLoadGen [--address a] [--n records] [--connections c] [--depth d] [--batch b]
+ *                                        [--range %] [--insert %] [--seconds s] [--warmup s] [--embedded]
+ *               --n must match the server's record count so that generated names hit. --embedded starts a
+ *               QueryServer in this JVM instead of connecting to a running one.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.SplittableRandom;
+
+public class QueryLoadGen {
+    public static void main(String[] args) throws Exception {
+        String address = "127.0.0.1:7070";
+        int n = 100_000;
+        int connections = 4;
+        int depth = 16;
+        int batch = 8;
+        int rangePercent = 5;
+        int insertPercent = 5;
+        double seconds = 10;
+        double warmup = 2;
+        boolean embedded = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--address":
+                    address = args[++i];
+                    break;
+                case "--n":
+                    n = Integer.parseInt(args[++i]);
+                    break;
+                case "--connections":
+                    connections = Integer.parseInt(args[++i]);
+                    break;
+                case "--depth":
+                    depth = Integer.parseInt(args[++i]);
+                    break;
+                case "--batch":
+                    batch = Integer.parseInt(args[++i]);
+                    break;
+                case "--range":
+                    rangePercent = Integer.parseInt(args[++i]);
+                    break;
+                case "--insert":
+                    insertPercent = Integer.parseInt(args[++i]);
+                    break;
+                case "--seconds":
+                    seconds = Double.parseDouble(args[++i]);
+                    break;
+                case "--warmup":
+                    warmup = Double.parseDouble(args[++i]);
+                    break;
+                case "--embedded":
+                    embedded = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        Pokemon[] records = new PokemonGenerator(42, PokemonGenerator.Distribution.RANDOM, 10).generate(n);
+        SocketAddress target = QueryServer.parseAddress(address);
+        QueryServer server = null;
+        if (embedded) {
+            AvlTree<Pokemon> tree = new AvlTree<>();
+            for (Pokemon pokemon : records) {
+                tree.insert(pokemon);
+            }
+            server = new QueryServer(tree);
+            target = server.start(target);
+        }
+
+        long warmupEnd = System.nanoTime() + (long) (warmup * 1e9);
+        long end = warmupEnd + (long) (seconds * 1e9);
+        Client[] clients = new Client[connections];
+        Thread[] threads = new Thread[connections];
+        for (int c = 0; c < connections; c++) {
+            clients[c] = new Client(c, target, records, depth, batch, rangePercent, insertPercent, warmupEnd, end);
+            threads[c] = new Thread(clients[c], "query-load-" + c);
+            threads[c].start();
+        }
+        LatencyHistogram latency = new LatencyHistogram();
+        long requests = 0;
+        long keys = 0;
+        for (int c = 0; c < connections; c++) {
+            threads[c].join();
+            if (clients[c].failure != null) {
+                throw clients[c].failure;
+            }
+            latency.add(clients[c].latency);
+            requests += clients[c].requests;
+            keys += clients[c].keys;
+        }
+        if (server != null) {
+            server.close();
+        }
+
+        System.out.println("\nQuery server load, " + n + " records on " + target
+                + (target instanceof UnixDomainSocketAddress ? " (Unix socket)" : " (TCP)") + ":");
+        System.out.println("-------------------------------------------");
+        System.out.printf("connections %d, pipeline depth %d, batch %d, mix %d%% get / %d%% range / %d%% insert%n",
+                connections, depth, batch, 100 - rangePercent - insertPercent, rangePercent, insertPercent);
+        System.out.printf("throughput: %.0f requests/s, %.0f keys/s%n", requests / seconds, keys / seconds);
+        System.out.printf("latency us: p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                latency.valueAtPercentile(50) / 1e3, latency.valueAtPercentile(90) / 1e3,
+                latency.valueAtPercentile(99) / 1e3, latency.valueAtPercentile(99.9) / 1e3,
+                latency.getMax() / 1e3);
+        System.out.println("-------------------------------------------\n");
+    }
+
+    // One connection, driven by one thread that alternates between reading a response and sending a request
+    private static class Client implements Runnable {
+        private final int index;
+        private final SocketAddress target;
+        private final Pokemon[] records;
+        private final int depth;
+        private final int batch;
+        private final int rangePercent;
+        private final int insertPercent;
+        private final long warmupEnd;
+        private final long end;
+        private final SplittableRandom random;
+        private final ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        private final DataOutputStream request = new DataOutputStream(frame);
+        private int inserted;
+
+        final LatencyHistogram latency = new LatencyHistogram();
+        long requests;
+        long keys;
+        Exception failure;
+
+        Client(int index, SocketAddress target, Pokemon[] records, int depth, int batch, int rangePercent,
+               int insertPercent, long warmupEnd, long end) {
+            this.index = index;
+            this.target = target;
+            this.records = records;
+            this.depth = depth;
+            this.batch = batch;
+            this.rangePercent = rangePercent;
+            this.insertPercent = insertPercent;
+            this.warmupEnd = warmupEnd;
+            this.end = end;
+            this.random = new SplittableRandom(index);
+        }
+
+        @Override
+        public void run() {
+            try (SocketChannel channel = SocketChannel.open(target)) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+                long[] sentAt = new long[depth]; // Responses come back in order, so request id % depth is free
+                int[] sentKeys = new int[depth];
+                int nextId = 0;
+                for (; nextId < depth; nextId++) {
+                    sentKeys[nextId] = send(out, nextId);
+                    sentAt[nextId] = System.nanoTime();
+                }
+                out.flush();
+                for (int expected = 0; expected < nextId; expected++) {
+                    int length = in.readInt();
+                    int id = in.readInt();
+                    if (id != expected) {
+                        throw new IOException("Response " + id + " arrived when " + expected + " was due");
+                    }
+                    if (in.readByte() != QueryServer.OK) {
+                        throw new IOException("Server error: " + in.readUTF());
+                    }
+                    in.skipNBytes(length - 5);
+                    long now = System.nanoTime();
+                    int slot = expected % depth;
+                    if (now > warmupEnd) {
+                        latency.record(now - sentAt[slot]);
+                        requests++;
+                        keys += sentKeys[slot];
+                    }
+                    if (now < end) {
+                        sentKeys[slot] = send(out, nextId++);
+                        sentAt[slot] = System.nanoTime();
+                    }
+                    if (in.available() == 0) {
+                        out.flush(); // Wait for the next response with every request actually sent
+                    }
+                }
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+
+        // Write one request of a randomly chosen kind; returns how many keys it carries
+        private int send(DataOutputStream out, int id) throws IOException {
+            frame.reset();
+            request.writeInt(id);
+            int roll = random.nextInt(100);
+            int count;
+            if (roll < rangePercent) {
+                request.writeByte(QueryServer.RANGE);
+                request.writeUTF(records[random.nextInt(records.length)].getName());
+                request.writeUTF("");
+                request.writeInt(16);
+                count = 1;
+            } else if (roll < rangePercent + insertPercent) {
+                request.writeByte(QueryServer.INSERT);
+                request.writeShort(batch);
+                for (int i = 0; i < batch; i++) {
+                    Pokemon pokemon = new Pokemon(records[random.nextInt(records.length)]);
+                    pokemon.setName("Load" + index + "x" + inserted++);
+                    PokemonCodec.write(request, pokemon);
+                }
+                count = batch;
+            } else {
+                request.writeByte(QueryServer.GET);
+                request.writeShort(batch);
+                for (int i = 0; i < batch; i++) {
+                    String name = records[random.nextInt(records.length)].getName();
+                    request.writeUTF(random.nextInt(10) == 0 ? name + "?" : name); // One in ten misses
+                }
+                count = batch;
+            }
+            out.writeInt(frame.size());
+            frame.writeTo(out);
+            return count;
+        }
+    }
+}
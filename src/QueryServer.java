@@ -0,0 +1,312 @@
+/**
+ * @file: QueryServer.java
+ * @description: This program serves lookups against an AVL Tree of Pokemon over a local TCP or Unix-domain
+ *               socket. Each connection is handled by its own virtual thread when the JVM has them (Java 21+;
+ *               otherwise a cached pool of platform threads), so a blocked client costs a few hundred bytes
+ *               rather than a thread stack. Readers share the tree under a read lock; inserts take the write lock.
+ *
+ *               The protocol is binary and pipelined: a client may send any number of requests without waiting,
+ *               and gets one response per request, in order. Responses are flushed only when no more requests
+ *               are already buffered, so a pipelined burst is answered with a single write. Every frame is
+ *               prefixed by the length of the rest of the frame:
+ *
+ *                 request:  int length, int id, byte op, body
+ *                   GET     short count, count x UTF name         (a batch of point lookups)
+ *                   RANGE   UTF lo, UTF hi, int limit             (empty bound = unbounded)
+ *                   INSERT  short count, count x record           (a batch of inserts)
+ *                 response: int length, int id, byte status, body
+ *                   GET     short count, count x (byte found, [record])
+ *                   RANGE   int count, count x record
+ *                   INSERT  int number of records that were new
+ *                   ERROR   UTF message
+ *
+ *               Records are encoded by PokemonCodec. Addresses are written "host:port", "port" or "unix:path".
+ *               Usage: java QueryServer [address] [n] serves n synthetic records (see PokemonGenerator).
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class QueryServer implements AutoCloseable {
+    public static final byte GET = 1;
+    public static final byte RANGE = 2;
+    public static final byte INSERT = 3;
+
+    public static final byte OK = 0;
+    public static final byte ERROR = 1;
+
+    /** Frames longer than this close the connection rather than being buffered. */
+    public static final int MAX_FRAME = 16 << 20;
+
+    private final AvlTree<Pokemon> tree;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService connections = newConnectionExecutor();
+    private ServerSocketChannel listener;
+    private Thread acceptor;
+    private boolean closed; // Guarded by this
+
+    /**
+     * Construct a server over a tree. From start until close, the tree must only be changed through the server.
+     * @param tree the tree to serve.
+     */
+    public QueryServer(AvlTree<Pokemon> tree) {
+        this.tree = tree;
+    }
+
+    public static void main(String[] args) throws IOException {
+        SocketAddress address = parseAddress(args.length > 0 ? args[0] : "127.0.0.1:7070");
+        int n = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        AvlTree<Pokemon> tree = new AvlTree<>();
+        for (Pokemon pokemon : new PokemonGenerator(42, PokemonGenerator.Distribution.RANDOM, 10).generate(n)) {
+            tree.insert(pokemon);
+        }
+        QueryServer server = new QueryServer(tree);
+        System.out.println("Serving " + tree.size() + " records on " + server.start(address)
+                + " (" + (usesVirtualThreads() ? "virtual" : "platform") + " threads)");
+    }
+
+    /**
+     * Start accepting connections.
+     * @param address where to listen; port 0 picks a free port, and a stale Unix socket file is replaced.
+     * @return the address actually bound.
+     */
+    public synchronized SocketAddress start(SocketAddress address) throws IOException {
+        if (listener != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+            listener = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            listener = ServerSocketChannel.open();
+        }
+        listener.bind(address);
+        acceptor = new Thread(this::acceptLoop, "query-server-acceptor");
+        acceptor.start();
+        return listener.getLocalAddress();
+    }
+
+    /**
+     * Stop accepting connections and close the ones that are open. Closing again does nothing.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (listener == null || closed) {
+            return;
+        }
+        closed = true;
+        SocketAddress bound = listener.getLocalAddress();
+        listener.close();
+        connections.shutdownNow();
+        if (bound instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) bound).getPath());
+        }
+    }
+
+    /**
+     * Parse an address: "unix:path" for a Unix-domain socket, otherwise "host:port" or just "port" on localhost.
+     * @param address the address.
+     * @return the socket address.
+     */
+    public static SocketAddress parseAddress(String address) {
+        if (address.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(Path.of(address.substring("unix:".length())));
+        }
+        int colon = address.lastIndexOf(':');
+        if (colon < 0) {
+            return new InetSocketAddress("127.0.0.1", Integer.parseInt(address));
+        }
+        return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    /**
+     * Check whether connections get virtual threads on this JVM.
+     * @return true on Java 21 and later.
+     */
+    public static boolean usesVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // One virtual thread per task where available, looked up reflectively so this still builds on Java 17
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "query-server-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void acceptLoop() {
+        try {
+            while (true) {
+                SocketChannel channel = listener.accept();
+                connections.execute(() -> serve(channel));
+            }
+        } catch (ClosedChannelException e) {
+            // close() was called
+        } catch (IOException e) {
+            System.err.println("Query server stopped accepting: " + e.getMessage());
+        }
+    }
+
+    // Answer requests on one connection until the client hangs up
+    private void serve(SocketChannel channel) {
+        try (channel) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream response = new DataOutputStream(body);
+            byte[] frame = new byte[256];
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return; // Client hung up between requests
+                }
+                if (length < 5 || length > MAX_FRAME) {
+                    return; // Not a frame; the stream cannot be resynchronised
+                }
+                if (frame.length < length) {
+                    frame = new byte[Math.max(length, 2 * frame.length)];
+                }
+                in.readFully(frame, 0, length);
+                DataInputStream request = new DataInputStream(new ByteArrayInputStream(frame, 0, length));
+                int id = request.readInt();
+
+                body.reset();
+                response.writeInt(id);
+                try {
+                    byte op = request.readByte();
+                    response.writeByte(OK);
+                    handle(op, request, response);
+                } catch (IOException | IllegalArgumentException e) {
+                    // A malformed body: answer this request with an error and keep serving the connection
+                    body.reset();
+                    response.writeInt(id);
+                    response.writeByte(ERROR);
+                    response.writeUTF(String.valueOf(e.getMessage()));
+                }
+                out.writeInt(body.size());
+                body.writeTo(out);
+                if (in.available() == 0) {
+                    out.flush(); // Nothing else pipelined behind this request
+                }
+            }
+        } catch (IOException e) {
+            // Connection reset or closed by close(); nothing to answer
+        }
+    }
+
+    private void handle(byte op, DataInputStream request, DataOutputStream response) throws IOException {
+        switch (op) {
+            case GET:
+                handleGet(request, response);
+                break;
+            case RANGE:
+                handleRange(request, response);
+                break;
+            case INSERT:
+                handleInsert(request, response);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown op " + op);
+        }
+    }
+
+    private void handleGet(DataInputStream request, DataOutputStream response) throws IOException {
+        int count = request.readUnsignedShort();
+        Pokemon[] keys = new Pokemon[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = PokemonCodec.key(request.readUTF());
+        }
+        Pokemon[] found = new Pokemon[count];
+        // Shared with other readers: find and range write nothing, not even the tree's metrics counters
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                found[i] = tree.find(keys[i]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Encode outside the lock so writers are not held up by serialisation
+        response.writeShort(count);
+        for (Pokemon pokemon : found) {
+            response.writeBoolean(pokemon != null);
+            if (pokemon != null) {
+                PokemonCodec.write(response, pokemon);
+            }
+        }
+    }
+
+    private void handleRange(DataInputStream request, DataOutputStream response) throws IOException {
+        String lo = request.readUTF();
+        String hi = request.readUTF();
+        int limit = request.readInt();
+        List<Pokemon> found;
+        lock.readLock().lock();
+        try {
+            found = tree.range(lo.isEmpty() ? null : PokemonCodec.key(lo), hi.isEmpty() ? null : PokemonCodec.key(hi),
+                    limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+        response.writeInt(found.size());
+        for (Pokemon pokemon : found) {
+            PokemonCodec.write(response, pokemon);
+        }
+    }
+
+    private void handleInsert(DataInputStream request, DataOutputStream response) throws IOException {
+        int count = request.readUnsignedShort();
+        Pokemon[] records = new Pokemon[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = PokemonCodec.read(request);
+        }
+        int added;
+        lock.writeLock().lock();
+        try {
+            int before = tree.size();
+            for (Pokemon pokemon : records) {
+                tree.insert(pokemon);
+            }
+            added = tree.size() - before;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        response.writeInt(added);
+    }
+}
@@ -0,0 +1,408 @@
+/**
+ * @file: ScalingSweep.java
+ * @description: This program measures how the BST, AVL Tree and NameTree scale past the size of Pokemon.csv. It
+ *               generates synthetic records at geometric sizes (by default 1,000 up to 1,000,000, and up to tens of
+ *               millions given the heap), times insert, search and remove for each tree, and reports ns/op and
+ *               bytes allocated per entry as a table on the console and as rows in scaling.csv. Every point runs in
+ *               this JVM, or with --fork in a fresh JVM so one tree's garbage and JIT profile cannot skew the next.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+
+public class ScalingSweep {
+    private static final String USAGE = "Usage: java ScalingSweep [--min n] [--max n] [--factor f] [--seed s]"
+            + " [--dist sequential|random|prefixed] [--name-length l] [--engines bst,avl,name] [--fork]";
+
+    private static final String CSV_HEADER =
+            "engine,distribution,n,insert_ns_op,search_ns_op,remove_ns_op,bytes_per_entry,height";
+
+    /**
+     * Sorted input turns the BST into a linked list, and its recursive insert and search then go n frames
+     * deep. A fresh JVM, still interpreting, overflows the default stack between 5,000 and 8,000 records, so
+     * sizes from this one up are skipped.
+     */
+    private static final int BST_SEQUENTIAL_LIMIT = 4_000;
+
+    /**
+     * The trees a sweep can measure.
+     */
+    enum Engine {
+        BST, AVL, NAME
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        if (options.pointN > 0) {
+            // Child JVM started by --fork: measure one point and report it on stdout
+            Result result = measure(options.engines.get(0), options.pointN, options);
+            System.out.println("RESULT," + result.toCsv());
+            return;
+        }
+
+        System.out.println("\nScaling sweep: " + options.distribution.name().toLowerCase(Locale.ROOT)
+                + " keys, seed " + options.seed + (options.fork ? ", forked JVMs" : ", single JVM"));
+        System.out.println("-------------------------------------------");
+        System.out.printf("%-4s %12s %14s %14s %14s %12s %7s%n",
+                "Tree", "n", "insert ns/op", "search ns/op", "remove ns/op", "bytes/entry", "height");
+
+        if (!options.fork) {
+            // Warm the JIT on a small point so the first real row is not mostly interpreter time
+            for (Engine engine : options.engines) {
+                measure(engine, Math.min(options.minN, BST_SEQUENTIAL_LIMIT - 1), options);
+            }
+        }
+
+        // A failed point is reported and the sweep goes on; only running out of memory retires an engine,
+        // since every larger size would fail the same way
+        List<Result> results = new ArrayList<>();
+        EnumSet<Engine> outOfMemory = EnumSet.noneOf(Engine.class);
+        for (long n : options.sizes()) {
+            for (Engine engine : options.engines) {
+                if (engine == Engine.BST && options.distribution == PokemonGenerator.Distribution.SEQUENTIAL
+                        && n >= BST_SEQUENTIAL_LIMIT) {
+                    System.out.printf("%-4s %12d %s%n", engine, n, "  skipped: sorted input degenerates the BST");
+                    continue;
+                }
+                if (outOfMemory.contains(engine)) {
+                    continue;
+                }
+                Result result;
+                try {
+                    result = options.fork ? measureForked(engine, (int) n, options) : measure(engine, (int) n, options);
+                } catch (OutOfMemoryError e) {
+                    System.out.printf("%-4s %12d %s%n", engine, n, "  out of memory; raise -Xmx to go further");
+                    outOfMemory.add(engine);
+                    continue;
+                } catch (StackOverflowError e) {
+                    System.out.printf("%-4s %12d %s%n", engine, n, "  failed: stack overflow");
+                    continue;
+                } catch (IOException e) {
+                    System.out.printf("%-4s %12d %s%n", engine, n, "  failed: " + e.getMessage().lines().findFirst().orElse(""));
+                    continue;
+                }
+                results.add(result);
+                System.out.printf("%-4s %12d %14.1f %14.1f %14.1f %12.1f %7d%n", result.engine, result.n,
+                        result.insertNsPerOp, result.searchNsPerOp, result.removeNsPerOp,
+                        result.bytesPerEntry, result.height);
+            }
+        }
+        System.out.println("-------------------------------------------\n");
+
+        writeResultsToFile(results);
+    }
+
+    /**
+     * Measure one engine at one size in this JVM.
+     * @param engine the tree to measure.
+     * @param n the number of records.
+     * @param options the sweep settings.
+     * @return the timings and footprint.
+     */
+    static Result measure(Engine engine, int n, Options options) {
+        PokemonGenerator generator = new PokemonGenerator(options.seed, options.distribution, options.nameLength);
+        Pokemon[] data = generator.generate(n);
+        Pokemon[] probes = generator.shuffled(data);
+        Target tree = engine == Engine.BST ? new BstTarget() : engine == Engine.AVL ? new AvlTarget() : new NameTarget();
+
+        MemoryProbe probe = MemoryProbe.start();
+        long start = System.nanoTime();
+        for (Pokemon pokemon : data) {
+            tree.insert(pokemon);
+        }
+        long insertNanos = System.nanoTime() - start;
+        MemoryProbe.Sample build = probe.stop();
+        int height = tree.height();
+
+        start = System.nanoTime();
+        int found = 0;
+        for (Pokemon pokemon : probes) {
+            if (tree.contains(pokemon)) {
+                found++;
+            }
+        }
+        long searchNanos = System.nanoTime() - start;
+        if (found != n) {
+            throw new IllegalStateException(engine + " found " + found + " of " + n + " records");
+        }
+
+        start = System.nanoTime();
+        for (Pokemon pokemon : probes) {
+            tree.remove(pokemon);
+        }
+        long removeNanos = System.nanoTime() - start;
+
+        return new Result(engine, options.distribution, n, (double) insertNanos / n, (double) searchNanos / n,
+                (double) removeNanos / n, build.bytesPer(n), height);
+    }
+
+    // Run one point in a child JVM with the same JVM flags and classpath, and parse its RESULT line
+    private static Result measureForked(Engine engine, int n, Options options) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("ScalingSweep");
+        command.add("--point");
+        command.add(Integer.toString(n));
+        command.add("--engines");
+        command.add(engine.name());
+        command.add("--seed");
+        command.add(Long.toString(options.seed));
+        command.add("--dist");
+        command.add(options.distribution.name());
+        command.add("--name-length");
+        command.add(Integer.toString(options.nameLength));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String resultLine = null;
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("RESULT,")) {
+                    resultLine = line.substring("RESULT,".length());
+                } else {
+                    output.append(line).append('\n');
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || resultLine == null) {
+            if (output.indexOf("OutOfMemoryError") >= 0) {
+                throw new OutOfMemoryError(output.toString());
+            }
+            throw new IOException("forked JVM exited with " + exitCode + ": " + output.toString().trim());
+        }
+        return Result.fromCsv(resultLine);
+    }
+
+    // Append the results to scaling.csv, writing the header row first if the file is new
+    private static void writeResultsToFile(List<Result> results) throws IOException {
+        File file = new File("scaling.csv");
+        boolean writeHeader = !file.exists() || file.length() == 0;
+        StringBuilder rows = new StringBuilder();
+        if (writeHeader) {
+            rows.append(CSV_HEADER).append("\n");
+        }
+        for (Result result : results) {
+            rows.append(result.toCsv()).append("\n");
+        }
+        try (FileOutputStream output = new FileOutputStream(file, true)) {
+            output.write(rows.toString().getBytes());
+        }
+    }
+
+    // The operations the sweep needs, so both trees can be driven by the same loop
+    private interface Target {
+        void insert(Pokemon pokemon);
+
+        boolean contains(Pokemon pokemon);
+
+        void remove(Pokemon pokemon);
+
+        int height();
+    }
+
+    private static class BstTarget implements Target {
+        private final BST<Pokemon> tree = new BST<>();
+
+        public void insert(Pokemon pokemon) {
+            tree.insert(pokemon);
+        }
+
+        public boolean contains(Pokemon pokemon) {
+            return tree.search(pokemon);
+        }
+
+        public void remove(Pokemon pokemon) {
+            tree.remove(pokemon);
+        }
+
+        public int height() {
+            return tree.height();
+        }
+    }
+
+    private static class AvlTarget implements Target {
+        private final AvlTree<Pokemon> tree = new AvlTree<>();
+
+        public void insert(Pokemon pokemon) {
+            tree.insert(pokemon);
+        }
+
+        public boolean contains(Pokemon pokemon) {
+            return tree.contains(pokemon);
+        }
+
+        public void remove(Pokemon pokemon) {
+            tree.remove(pokemon);
+        }
+
+        public int height() {
+            return tree.height();
+        }
+    }
+
+    // Name index: looks records up by their name string rather than by a Pokemon probe
+    private static class NameTarget implements Target {
+        private final NameTree<Pokemon> tree = new NameTree<>();
+
+        public void insert(Pokemon pokemon) {
+            tree.put(pokemon.getName(), pokemon);
+        }
+
+        public boolean contains(Pokemon pokemon) {
+            return tree.get(pokemon.getName()) != null;
+        }
+
+        public void remove(Pokemon pokemon) {
+            tree.remove(pokemon.getName());
+        }
+
+        public int height() {
+            return tree.height();
+        }
+    }
+
+    /**
+     * The measurements for one engine at one size.
+     */
+    static class Result {
+        final Engine engine;
+        final PokemonGenerator.Distribution distribution;
+        final int n;
+        final double insertNsPerOp;
+        final double searchNsPerOp;
+        final double removeNsPerOp;
+        final double bytesPerEntry;
+        final int height;
+
+        Result(Engine engine, PokemonGenerator.Distribution distribution, int n, double insertNsPerOp,
+               double searchNsPerOp, double removeNsPerOp, double bytesPerEntry, int height) {
+            this.engine = engine;
+            this.distribution = distribution;
+            this.n = n;
+            this.insertNsPerOp = insertNsPerOp;
+            this.searchNsPerOp = searchNsPerOp;
+            this.removeNsPerOp = removeNsPerOp;
+            this.bytesPerEntry = bytesPerEntry;
+            this.height = height;
+        }
+
+        String toCsv() {
+            return engine + "," + distribution.name().toLowerCase(Locale.ROOT) + "," + n + ","
+                    + String.format(Locale.ROOT, "%.1f,%.1f,%.1f,%.1f", insertNsPerOp, searchNsPerOp,
+                    removeNsPerOp, bytesPerEntry) + "," + height;
+        }
+
+        static Result fromCsv(String line) {
+            String[] fields = line.split(",");
+            return new Result(Engine.valueOf(fields[0]),
+                    PokemonGenerator.Distribution.valueOf(fields[1].toUpperCase(Locale.ROOT)),
+                    Integer.parseInt(fields[2]), Double.parseDouble(fields[3]), Double.parseDouble(fields[4]),
+                    Double.parseDouble(fields[5]), Double.parseDouble(fields[6]), Integer.parseInt(fields[7]));
+        }
+    }
+
+    /**
+     * Command line settings for a sweep.
+     */
+    static class Options {
+        int minN = 1_000;
+        int maxN = 1_000_000;
+        int factor = 10;
+        long seed = 42;
+        PokemonGenerator.Distribution distribution = PokemonGenerator.Distribution.RANDOM;
+        int nameLength = 10;
+        List<Engine> engines = List.of(Engine.BST, Engine.AVL, Engine.NAME);
+        boolean fork = false;
+        int pointN = 0; // Set only in a forked child
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String flag = args[i];
+                if (flag.equals("--fork")) {
+                    options.fork = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + flag);
+                }
+                String value = args[++i];
+                try {
+                    switch (flag) {
+                        case "--min":
+                            options.minN = Integer.parseInt(value);
+                            break;
+                        case "--max":
+                            options.maxN = Integer.parseInt(value);
+                            break;
+                        case "--factor":
+                            options.factor = Integer.parseInt(value);
+                            break;
+                        case "--seed":
+                            options.seed = Long.parseLong(value);
+                            break;
+                        case "--dist":
+                            options.distribution = PokemonGenerator.Distribution.valueOf(value.toUpperCase(Locale.ROOT));
+                            break;
+                        case "--name-length":
+                            options.nameLength = Integer.parseInt(value);
+                            break;
+                        case "--engines":
+                            List<Engine> engines = new ArrayList<>();
+                            for (String engine : value.split(",")) {
+                                engines.add(Engine.valueOf(engine.trim().toUpperCase(Locale.ROOT)));
+                            }
+                            options.engines = engines;
+                            break;
+                        case "--point":
+                            options.pointN = Integer.parseInt(value);
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown option " + flag);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad value for " + flag + ": " + value);
+                }
+            }
+            if (options.minN < 1 || options.maxN < options.minN || options.factor < 2 || options.nameLength < 1
+                    || options.engines.isEmpty()) {
+                throw new IllegalArgumentException("Need 1 <= min <= max, factor >= 2, name length >= 1, an engine");
+            }
+            return options;
+        }
+
+        // min, min*factor, min*factor^2, ... and finally max itself
+        List<Long> sizes() {
+            List<Long> sizes = new ArrayList<>();
+            for (long n = minN; n < maxN; n *= factor) {
+                sizes.add(n);
+            }
+            sizes.add((long) maxN);
+            return sizes;
+        }
+    }
+}
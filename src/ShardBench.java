@@ -0,0 +1,94 @@
+/**
+ * @file: ShardBench.java
+ * @description: This program compares multi-threaded insert throughput of a single AVL Tree behind a lock with
+ *               ShardedAvlTree. Each of the writer threads inserts its slice of n synthetic records, then removes
+ *               every other one; the run ends when every operation is applied. Shard boundaries come from a 1%
+ *               sample of the records.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class ShardBench {
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Pokemon[] data = new PokemonGenerator(42, PokemonGenerator.Distribution.RANDOM, 10).generate(n);
+        List<Pokemon> sample = new ArrayList<>();
+        for (int i = 0; i < n; i += 100) {
+            sample.add(data[i]);
+        }
+
+        System.out.println("\nConcurrent insert+remove, n=" + n + " (" + Runtime.getRuntime().availableProcessors()
+                + " CPUs, million ops/sec):");
+        System.out.println("-------------------------------------------");
+        System.out.printf("%8s %14s %14s%n", "threads", "locked AVL", "sharded AVL");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double locked = runLocked(data, threads);
+            double sharded = runSharded(data, sample, threads);
+            System.out.printf("%8d %14.2f %14.2f%n", threads, locked, sharded);
+        }
+        System.out.println("-------------------------------------------\n");
+    }
+
+    // One AvlTree shared by every writer through its monitor
+    private static double runLocked(Pokemon[] data, int threads) throws InterruptedException {
+        AvlTree<Pokemon> tree = new AvlTree<>();
+        long start = System.nanoTime();
+        runWriters(data, threads, pokemon -> {
+            synchronized (tree) {
+                tree.insert(pokemon);
+            }
+        }, pokemon -> {
+            synchronized (tree) {
+                tree.remove(pokemon);
+            }
+        });
+        return opsPerMicro(data.length, System.nanoTime() - start);
+    }
+
+    // One shard per writer
+    private static double runSharded(Pokemon[] data, List<Pokemon> sample, int threads) throws InterruptedException {
+        try (ShardedAvlTree<Pokemon> tree = new ShardedAvlTree<>(threads, sample)) {
+            long start = System.nanoTime();
+            runWriters(data, threads, tree::insert, tree::remove);
+            tree.flush(); // Writers only queue; count the time until everything is applied
+            long elapsed = System.nanoTime() - start;
+            if (tree.size() != data.length - (data.length + 1) / 2) {
+                throw new IllegalStateException("sharded tree lost operations: " + tree.size());
+            }
+            return opsPerMicro(data.length, elapsed);
+        }
+    }
+
+    // Writer t inserts data[t], data[t + threads], ... and then removes the even-indexed ones among them
+    private static void runWriters(Pokemon[] data, int threads, Consumer<Pokemon> insert,
+                                   Consumer<Pokemon> remove) throws InterruptedException {
+        Thread[] writers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            writers[t] = new Thread(() -> {
+                for (int i = first; i < data.length; i += threads) {
+                    insert.accept(data[i]);
+                }
+                for (int i = first; i < data.length; i += threads) {
+                    if (i % 2 == 0) {
+                        remove.accept(data[i]);
+                    }
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+    }
+
+    // Inserts plus removes, in millions per second
+    private static double opsPerMicro(int n, long nanos) {
+        return (n + (n + 1) / 2) * 1e3 / nanos;
+    }
+}
@@ -0,0 +1,446 @@
+/**
+ * @file: ShardedAvlTree.java
+ * @description: This class implements an ordered set that range-partitions its keys across several AVL Trees
+ *               so writers on many cores do not serialize on one root. Each shard is owned by one worker thread,
+ *               the only thread that ever touches its tree, and other threads hand it work through a lock-free
+ *               MPSC inbox; operations from one thread on one key are applied in the order they were issued.
+ *               Shard boundaries start as quantiles of a sample and are recomputed from the real contents when
+ *               one shard grows well past its share. Because shards hold disjoint key ranges, iterating them in
+ *               boundary order yields every key in sorted order.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public class ShardedAvlTree<T extends Comparable<? super T>> implements Iterable<T>, AutoCloseable {
+    /** Each worker asks for a skew check after applying this many operations. */
+    private static final int CHECK_INTERVAL = 1 << 16;
+
+    /** Below this many keys per shard, skew is not worth a rebuild. */
+    private static final int MIN_KEYS_PER_SHARD = 1024;
+
+    private final int requestedShards;
+    private final double skewFactor;
+    private volatile Layout layout;
+    private final ExecutorService balancer;
+    private final AtomicBoolean checkPending = new AtomicBoolean();
+    private volatile boolean closed;
+
+    /**
+     * Construct the tree, with a skew factor of 2.
+     * @param shards the number of shards (and worker threads).
+     * @param sample keys representative of what will be inserted, used to place the shard boundaries.
+     */
+    public ShardedAvlTree(int shards, Collection<? extends T> sample) {
+        this(shards, sample, 2.0);
+    }
+
+    /**
+     * Construct the tree.
+     * @param shards the number of shards (and worker threads).
+     * @param sample keys representative of what will be inserted, used to place the shard boundaries.
+     * @param skewFactor rebalance once the largest shard holds this many times the average.
+     */
+    public ShardedAvlTree(int shards, Collection<? extends T> sample, double skewFactor) {
+        if (shards < 1 || skewFactor <= 1) {
+            throw new IllegalArgumentException("Need at least one shard and a skew factor above 1");
+        }
+        this.requestedShards = shards;
+        this.skewFactor = skewFactor;
+        ArrayList<T> sorted = new ArrayList<>(sample);
+        sorted.sort(null);
+        layout = new Layout(boundaries(sorted, shards));
+        for (Shard shard : layout.shards) {
+            shard.tree = new AvlTree<>();
+            shard.thread.start();
+        }
+        balancer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "shard-balancer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Insert into the tree; duplicates are ignored. Returns once the owning shard has the operation queued.
+     * @param x the item to insert.
+     * @throws IllegalStateException if the tree is closed.
+     */
+    public void insert(T x) {
+        submit(x, tree -> tree.insert(x));
+    }
+
+    /**
+     * Remove from the tree. Nothing is done if x is not found. Returns once the operation is queued.
+     * @param x the item to remove.
+     * @throws IllegalStateException if the tree is closed.
+     */
+    public void remove(T x) {
+        submit(x, tree -> tree.remove(x));
+    }
+
+    /**
+     * Find an item in the tree. Sees every insert and remove this thread issued before the call.
+     * @param x the item to search for.
+     * @return true if x is found.
+     * @throws IllegalStateException if the tree is closed.
+     * @throws java.util.concurrent.CompletionException if the search throws on the shard's worker.
+     */
+    public boolean contains(T x) {
+        CompletableFuture<Boolean> found = new CompletableFuture<>();
+        submit(x, answer(found, tree -> tree.contains(x)));
+        return found.join();
+    }
+
+    /**
+     * Wait until every operation this thread issued has been applied.
+     */
+    public void flush() {
+        for (CompletableFuture<Integer> done : askEveryShard(AvlTree::size)) {
+            done.join();
+        }
+    }
+
+    /**
+     * Get the number of items in the tree, after applying every operation this thread issued.
+     * @return the number of items.
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (int shardSize : shardSizes()) {
+            size += shardSize;
+        }
+        return size;
+    }
+
+    /**
+     * Get the number of items in each shard, in key order.
+     * @return the shard sizes.
+     */
+    public synchronized int[] shardSizes() {
+        List<CompletableFuture<Integer>> sizes = askEveryShard(AvlTree::size);
+        int[] result = new int[sizes.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = sizes.get(i).join();
+        }
+        return result;
+    }
+
+    /**
+     * Get an iterator over a snapshot of the items in sorted order, taken after applying every operation
+     * this thread issued.
+     * @return the iterator.
+     */
+    @Override
+    public synchronized Iterator<T> iterator() {
+        ArrayList<T> items = new ArrayList<>();
+        for (CompletableFuture<List<T>> shard : askEveryShard(ShardedAvlTree::toList)) {
+            items.addAll(shard.join()); // Shards cover consecutive key ranges, so this stays sorted
+        }
+        return items.iterator();
+    }
+
+    /**
+     * Rebalance if the largest shard holds more than skewFactor times the average.
+     * @return true if the shards were rebalanced.
+     */
+    public synchronized boolean rebalanceIfSkewed() {
+        if (closed) {
+            return false;
+        }
+        int[] sizes = shardSizes();
+        long total = 0;
+        int largest = 0;
+        for (int size : sizes) {
+            total += size;
+            largest = Math.max(largest, size);
+        }
+        if (total < (long) MIN_KEYS_PER_SHARD * requestedShards
+                || largest <= skewFactor * total / requestedShards) {
+            return false;
+        }
+        rebalance();
+        return true;
+    }
+
+    /**
+     * Recompute the shard boundaries as exact quantiles of the current contents and rebuild every shard.
+     * Writers keep going meanwhile: operations for the new shards queue up until the rebuild is done.
+     */
+    public synchronized void rebalance() {
+        if (closed) {
+            return;
+        }
+        Layout old = layout;
+        ArrayList<T> snapshot = new ArrayList<>();
+        iterator().forEachRemaining(snapshot::add);
+        Layout next = new Layout(boundaries(snapshot, requestedShards));
+
+        // From here on new operations queue up on the new shards, whose workers have not started yet; once the
+        // old layout is unpinned, every writer that picked it has queued its operation
+        layout = next;
+        old.awaitUnpinned();
+
+        // Retire the old shards once their queues are drained; their final contents are in key order
+        ArrayList<T> items = new ArrayList<>();
+        List<CompletableFuture<List<T>>> contents = new ArrayList<>();
+        for (Shard shard : old.shards) {
+            contents.add(shard.retire());
+        }
+        for (CompletableFuture<List<T>> shard : contents) {
+            items.addAll(shard.join());
+        }
+
+        // Split by the new boundaries and build each new shard in linear time
+        int from = 0;
+        for (int i = 0; i < next.shards.size(); i++) {
+            int to = from;
+            while (to < items.size() && next.route(items.get(to)) == i) {
+                to++;
+            }
+            Shard shard = next.shards.get(i);
+            shard.tree = new AvlTree<>();
+            shard.tree.insertSorted(items.subList(from, to));
+            from = to;
+        }
+        for (Shard shard : next.shards) {
+            shard.thread.start();
+        }
+    }
+
+    /**
+     * Get the number of shards currently in use (fewer than requested if the sample had too few distinct keys).
+     * @return the number of shards.
+     */
+    public int shardCount() {
+        return layout.shards.size();
+    }
+
+    /**
+     * Stop every worker thread after it applies the operations already queued. Every operation submitted
+     * after this throws IllegalStateException.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Layout last = layout;
+        last.awaitUnpinned(); // Writers that got in before closed was set finish queueing
+        balancer.shutdownNow();
+        for (Shard shard : last.shards) {
+            shard.retire().join();
+        }
+    }
+
+    // Queue op on the shard owning x. The pin keeps rebalance() from retiring the shards, and close() from
+    // stopping them, between picking a shard and queueing on it
+    private void submit(T x, Consumer<AvlTree<T>> op) {
+        Layout current = pin();
+        try {
+            current.shards.get(current.route(x)).enqueue(op);
+        } finally {
+            current.unpinned.increment();
+        }
+    }
+
+    // Run query on every shard's worker, after everything queued before it
+    private <R> List<CompletableFuture<R>> askEveryShard(Function<AvlTree<T>, R> query) {
+        Layout current = pin();
+        try {
+            List<CompletableFuture<R>> results = new ArrayList<>();
+            for (Shard shard : current.shards) {
+                CompletableFuture<R> result = new CompletableFuture<>();
+                shard.enqueue(answer(result, query));
+                results.add(result);
+            }
+            return results;
+        } finally {
+            current.unpinned.increment();
+        }
+    }
+
+    // Pin the current layout. Each writer bumps its own LongAdder cell, so writers never contend with each
+    // other; if the layout was swapped between reading and pinning it, unpin and try the new one
+    private Layout pin() {
+        while (true) {
+            Layout current = layout;
+            current.pinned.increment();
+            if (current == layout) {
+                if (closed) {
+                    current.unpinned.increment();
+                    throw new IllegalStateException("ShardedAvlTree is closed");
+                }
+                return current;
+            }
+            current.unpinned.increment();
+        }
+    }
+
+    // An operation that completes result with what query returns, or exceptionally with what it throws
+    private <R> Consumer<AvlTree<T>> answer(CompletableFuture<R> result, Function<AvlTree<T>, R> query) {
+        return tree -> {
+            try {
+                result.complete(query.apply(tree));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        };
+    }
+
+    // Called by workers every CHECK_INTERVAL operations; the check itself runs on the balancer thread
+    private void requestSkewCheck() {
+        if (checkPending.compareAndSet(false, true)) {
+            try {
+                balancer.execute(() -> {
+                    try {
+                        rebalanceIfSkewed();
+                    } finally {
+                        checkPending.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                checkPending.set(false); // Closed
+            }
+        }
+    }
+
+    // Pick shards - 1 distinct boundaries at evenly spaced quantiles of sorted keys
+    private static <T extends Comparable<? super T>> List<T> boundaries(List<T> sorted, int shards) {
+        List<T> boundaries = new ArrayList<>();
+        for (int i = 1; i < shards && !sorted.isEmpty(); i++) {
+            T boundary = sorted.get((int) ((long) i * sorted.size() / shards));
+            if (boundaries.isEmpty() || boundary.compareTo(boundaries.get(boundaries.size() - 1)) > 0) {
+                boundaries.add(boundary);
+            }
+        }
+        return boundaries;
+    }
+
+    private static <T extends Comparable<? super T>> List<T> toList(AvlTree<T> tree) {
+        List<T> items = new ArrayList<>(tree.size());
+        for (T x : tree) {
+            items.add(x);
+        }
+        return items;
+    }
+
+    // One generation of shards and the boundaries between them
+    private class Layout {
+        final List<T> boundaries; // Shard i holds keys in [boundaries[i - 1], boundaries[i])
+        final List<Shard> shards = new ArrayList<>();
+        // Writers currently queueing on these shards are pinned minus unpinned. Two counters that only grow,
+        // rather than one that goes up and down, so a sum taken while writers come and go cannot undercount
+        final LongAdder pinned = new LongAdder();
+        final LongAdder unpinned = new LongAdder();
+
+        Layout(List<T> boundaries) {
+            this.boundaries = boundaries;
+            for (int i = 0; i <= boundaries.size(); i++) {
+                shards.add(new Shard(i));
+            }
+        }
+
+        // Index of the first boundary greater than x
+        int route(T x) {
+            int lo = 0;
+            int hi = boundaries.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (x.compareTo(boundaries.get(mid)) < 0) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+
+        // Wait until no writer is queueing on this layout. Called after it stopped being the current one (or
+        // after closing), so writers that pin it from here on see that and back out. Unpins are summed first:
+        // every unpin counted then has its pin counted after, so the sums only match once every writer that
+        // was pinned throughout has left
+        void awaitUnpinned() {
+            while (true) {
+                long out = unpinned.sum();
+                if (pinned.sum() == out) {
+                    return;
+                }
+                Thread.yield();
+            }
+        }
+    }
+
+    // One shard: a tree, the only thread allowed to touch it, and that thread's inbox
+    private class Shard implements Runnable {
+        final MpscQueue<Consumer<AvlTree<T>>> inbox = new MpscQueue<>();
+        final Thread thread;
+        AvlTree<T> tree; // Set before the thread starts; afterwards touched only by the thread
+        volatile boolean parked;
+        boolean running = true; // Touched only by the thread
+        int sinceCheck; // Touched only by the thread
+
+        Shard(int index) {
+            thread = new Thread(this, "shard-" + index);
+            thread.setDaemon(true);
+        }
+
+        void enqueue(Consumer<AvlTree<T>> op) {
+            inbox.offer(op);
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        // Stop after the operations queued so far, handing back the final contents
+        CompletableFuture<List<T>> retire() {
+            CompletableFuture<List<T>> contents = new CompletableFuture<>();
+            enqueue(answer(contents, tree -> {
+                running = false;
+                return toList(tree);
+            }));
+            return contents;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                Consumer<AvlTree<T>> op = inbox.poll();
+                if (op == null) {
+                    // Publish that we are about to sleep, then look once more so a racing enqueue is not missed
+                    parked = true;
+                    if (inbox.isEmpty()) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                    continue;
+                }
+                try {
+                    op.accept(tree);
+                } catch (RuntimeException e) {
+                    // Only inserts and removes get here, the rest fail their own future; nobody waits on
+                    // those, so report it the way an uncaught exception would be, and keep serving the shard
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+                if (++sinceCheck == CHECK_INTERVAL) {
+                    sinceCheck = 0;
+                    requestSkewCheck();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestAggregates {
+    private static final TreeAggregate<Integer> SUM = TreeAggregate.sum(x -> x);
+    private static final TreeAggregate<Integer> MIN = TreeAggregate.min(x -> x % 97);
+    private static final TreeAggregate<Integer> MAX = TreeAggregate.max(x -> -3L * x);
+    private static final TreeAggregate<Integer> EVENS = TreeAggregate.count(x -> x % 2 == 0);
+
+    // Test program
+    public static void main( String [ ] args ) {
+        final int NUMS = 100000;
+        final int GAP = 37;
+
+        System.out.println("Checking... (no more output means success)");
+
+        // adds the aggregates to a tree that already has items, then inserts the rest
+        AvlTree<Integer> t = new AvlTree<>();
+        for (int i = GAP; i != 0 && i < NUMS / 2; i = (i + GAP) % NUMS)
+            t.insert(i);
+        t.addAggregate(SUM);
+        t.addAggregate(MIN);
+        for (int i = GAP; i != 0; i = (i + GAP) % NUMS)
+            t.insert(i);
+        t.checkBalance();
+
+        // checks whole-tree and range statistics over 1..NUMS-1
+        if (t.aggregate(SUM, null, null) != (long) NUMS * (NUMS - 1) / 2)
+            System.out.println("Sum error1!");
+        if (t.aggregate(SUM, 10, 19) != 145 || t.aggregate(SUM, 19, 10) != 0)
+            System.out.println("Sum error2!");
+        if (t.aggregate(MIN, 98, 193) != 1 || t.aggregate(MIN, 98, 98) != 1)
+            System.out.println("Min error!");
+
+        // an aggregate that was never added is rejected
+        try {
+            t.aggregate(EVENS, null, null);
+            System.out.println("Unknown aggregate error!");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        // random inserts, removes, batch inserts and replaces against a TreeSet, with and without lazy deletion
+        Random random = new Random(5);
+        for (int round = 0; round < 6; round++) {
+            t = new AvlTree<>();
+            TreeSet<Integer> expected = new TreeSet<>();
+            if (round % 2 == 0)
+                t.enableLazyDeletion(0.3);
+            t.addAggregate(SUM);
+            t.addAggregate(MIN);
+            for (int op = 0; op < 20000; op++) {
+                if (op == 5000) {
+                    // a second batch of aggregates starts from the current contents
+                    t.addAggregate(MAX);
+                    t.addAggregate(EVENS);
+                }
+                int k = random.nextInt(3000);
+                int roll = random.nextInt(10);
+                if (roll < 4) {
+                    t.insert(k);
+                    expected.add(k);
+                } else if (roll < 7) {
+                    t.remove(k);
+                    expected.remove(k);
+                } else if (roll == 7) {
+                    List<Integer> batch = new ArrayList<>();
+                    for (int j = random.nextInt(400); j > 0; j--)
+                        batch.add(random.nextInt(3000));
+                    Collections.sort(batch);
+                    t.insertSorted(batch);
+                    expected.addAll(batch);
+                } else if (roll == 8) {
+                    if (t.replace(k) != expected.contains(k))
+                        System.out.println("Replace error! " + k);
+                } else {
+                    Integer lo = random.nextInt(6) == 0 ? null : random.nextInt(3000);
+                    Integer hi = random.nextInt(6) == 0 ? null : random.nextInt(3000);
+                    check(t, expected, lo, hi, op > 5000, "Aggregate error! round " + round + " op " + op);
+                }
+            }
+            if (round % 2 == 0) {
+                // compaction relinks the nodes, so every cached statistic is rebuilt
+                t.disableLazyDeletion();
+                check(t, expected, null, null, true, "Compact error! round " + round);
+            }
+            t.checkBalance();
+        }
+    }
+
+    // checks the tree's statistics over [lo, hi] against a scan of the expected items
+    private static void check( AvlTree<Integer> t, TreeSet<Integer> expected, Integer lo, Integer hi,
+                               boolean all, String error ) {
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long evens = 0;
+        for (int x : expected) {
+            if ((lo == null || x >= lo) && (hi == null || x <= hi)) {
+                sum += x;
+                min = Math.min(min, x % 97);
+                max = Math.max(max, -3L * x);
+                if (x % 2 == 0)
+                    evens++;
+            }
+        }
+        if (t.aggregate(SUM, lo, hi) != sum || t.aggregate(MIN, lo, hi) != min)
+            System.out.println(error);
+        if (all && (t.aggregate(MAX, lo, hi) != max || t.aggregate(EVENS, lo, hi) != evens))
+            System.out.println(error);
+    }
+}
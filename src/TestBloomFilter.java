@@ -0,0 +1,128 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestBloomFilter {
+    // Test program
+    public static void main( String [ ] args ) {
+        final int NUMS = 100000;
+        final int KEYS = 20000;  // key range for the tree checks
+        Random random = new Random(13);
+
+        System.out.println("Checking... (no more output means success)");
+
+        // the filter on its own: no false negatives, and a false-positive rate close to the target
+        for (double rate : new double[] {0.01, 0.05, 0.2}) {
+            BloomFilter<Integer> f = new BloomFilter<>(NUMS, rate);
+            for (int i = 0; i < NUMS; i++)
+                f.add(i * 7);
+            for (int i = 0; i < NUMS; i++)
+                if (!f.mightContain(i * 7))
+                    System.out.println("False negative error! " + (i * 7));
+            int falsePositives = 0;
+            final int PROBES = 1000000;
+            for (int i = 0; i < PROBES; i++)
+                if (f.mightContain(-1 - i))
+                    falsePositives++;
+            double measured = (double) falsePositives / PROBES;
+            if (measured > 1.5 * rate || measured < rate / 4)
+                System.out.println("False positive rate error! target " + rate + " measured " + measured);
+            if (Math.abs(f.estimatedFalsePositiveRate() - measured) > rate / 2)
+                System.out.println("Estimate error! estimated " + f.estimatedFalsePositiveRate()
+                        + " measured " + measured);
+            f.clear();
+            if (f.mightContain(0) && f.mightContain(7) && f.mightContain(14))
+                System.out.println("Clear error!");
+        }
+
+        // an AVL Tree with a filter against a TreeSet, through everything that adds, drops or rebuilds
+        AvlTree<Integer> t = new AvlTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        t.enableBloomFilter(0.01);
+        long bytes = t.bloomFilterBytes();
+        int rebuilds = 0;
+        for (int phase = 0; phase < 8; phase++) {
+            if (phase == 4)
+                t.enableLazyDeletion(0.3);
+            // single inserts and removes; growth and removals both force rebuilds
+            for (int op = 0; op < 30000; op++) {
+                int k = random.nextInt(KEYS);
+                if (random.nextInt(3) < (phase % 2 == 0 ? 2 : 1)) {
+                    t.insert(k);
+                    expected.add(k);
+                } else {
+                    t.remove(k);
+                    expected.remove(k);
+                }
+                if (t.bloomFilterBytes() != bytes) {
+                    bytes = t.bloomFilterBytes();
+                    rebuilds++;
+                }
+            }
+            checkTree(t, expected, KEYS, "AvlTree error1! phase " + phase);
+
+            // a sorted batch small enough to insert item by item, then one large enough to merge
+            for (int size : new int[] {t.size() / 10 + 1, 2 * t.size() + 100}) {
+                List<Integer> batch = new ArrayList<>();
+                for (int j = 0; j < size; j++)
+                    batch.add(random.nextInt(KEYS));
+                Collections.sort(batch);
+                t.insertSorted(batch);
+                expected.addAll(batch);
+                checkTree(t, expected, KEYS, "AvlTree error2! phase " + phase + " batch " + size);
+            }
+
+            // emptying the tree must also empty the filter
+            if (phase == 2 || phase == 6) {
+                t.makeEmpty();
+                expected.clear();
+                checkTree(t, expected, KEYS, "AvlTree error3! phase " + phase);
+            }
+        }
+        if (rebuilds == 0)
+            System.out.println("Rebuild error! the filter was never rebuilt");
+        t.disableLazyDeletion();
+        checkTree(t, expected, KEYS, "AvlTree error4!");
+
+        // a BST with a filter against a TreeSet, including clear
+        BST<Integer> b = new BST<>();
+        expected.clear();
+        b.enableBloomFilter(0.01);
+        for (int phase = 0; phase < 4; phase++) {
+            for (int op = 0; op < 30000; op++) {
+                int k = random.nextInt(KEYS);
+                if (random.nextInt(3) < (phase % 2 == 0 ? 2 : 1)) {
+                    b.insert(k);
+                    expected.add(k);
+                } else {
+                    b.remove(k);
+                    expected.remove(k);
+                }
+            }
+            for (int k = 0; k < KEYS; k++)
+                if (b.search(k) != expected.contains(k))
+                    System.out.println("BST error! phase " + phase + " key " + k);
+            if (phase == 1) {
+                b.clear();
+                expected.clear();
+                for (int k = 0; k < KEYS; k++)
+                    if (b.search(k))
+                        System.out.println("BST clear error! key " + k);
+            }
+        }
+    }
+
+    // checks contains for every key in range; with a filter a false negative would show up as a miss here
+    private static void checkTree( AvlTree<Integer> t, TreeSet<Integer> expected, int keys, String error ) {
+        if (t.size() != expected.size())
+            System.out.println(error + " size " + t.size());
+        for (int k = 0; k < keys; k++) {
+            if (t.contains(k) != expected.contains(k)) {
+                System.out.println(error + " key " + k);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestColumns {
+    // Test program
+    public static void main( String [ ] args ) {
+        final int NUMS = 20000;
+        Pokemon[] data = new PokemonGenerator(1, PokemonGenerator.Distribution.RANDOM, 6).generate(NUMS);
+
+        System.out.println("Checking... (no more output means success)");
+
+        // gives some records one of 200 extra types, so type codes above 127 (negative bytes) are used too
+        PokemonColumns c = new PokemonColumns();
+        for (int i = 0; i < NUMS; i++) {
+            if (i % 10 == 0)
+                data[i].setType2("Extra" + (i / 10 % 200));
+            if (c.add(data[i]) != i)
+                System.out.println("Add error! " + i);
+        }
+
+        // checks every row and the name index, looked up in another case
+        for (int i = 0; i < NUMS; i++) {
+            if (c.rowOf(data[i].getName().toUpperCase()) != i)
+                System.out.println("RowOf error! " + data[i].getName());
+            if (!c.get(i).toString().equals(data[i].toString()))
+                System.out.println("Get error! row " + i);
+        }
+        if (c.rowOf("MissingNo") != -1)
+            System.out.println("RowOf error! found a missing name");
+
+        // checks range scans and counts, including the widest possible range
+        Random random = new Random(2);
+        for (int q = 0; q < 200; q++) {
+            int lo = q == 0 ? Integer.MIN_VALUE : random.nextInt(300) - 50;
+            int hi = q == 0 ? Integer.MAX_VALUE : lo + random.nextInt(200);
+            BitSet rows = c.where(PokemonColumns.Stat.ATTACK, lo, hi);
+            int count = 0;
+            for (int i = 0; i < NUMS; i++) {
+                boolean match = data[i].getAttack() >= lo && data[i].getAttack() <= hi;
+                if (match)
+                    count++;
+                if (rows.get(i) != match) {
+                    System.out.println("Where error! row " + i + " in [" + lo + ", " + hi + "]");
+                    break;
+                }
+            }
+            if (count != c.count(PokemonColumns.Stat.ATTACK, lo, hi) || count != rows.cardinality())
+                System.out.println("Count error! [" + lo + ", " + hi + "]");
+        }
+
+        // checks type scans for every type, whether it is a record's first or second
+        String[] types = new String[NUMS * 2];
+        for (int i = 0; i < NUMS; i++) {
+            types[2 * i] = data[i].getType1();
+            types[2 * i + 1] = data[i].getType2();
+        }
+        for (String type : new TreeSet<>(Arrays.asList(types))) {
+            BitSet rows = c.whereType(type);
+            for (int i = 0; i < NUMS; i++) {
+                if (rows.get(i) != (data[i].getType1().equals(type) || data[i].getType2().equals(type))) {
+                    System.out.println("WhereType error! " + type + " row " + i);
+                    break;
+                }
+            }
+        }
+        if (!c.whereType("Unknown").isEmpty())
+            System.out.println("WhereType error! matched an unknown type");
+
+        // checks sums and the legendary flags
+        long total = 0;
+        long legendaryTotal = 0;
+        for (Pokemon pokemon : data) {
+            total += pokemon.getTotal();
+            if (pokemon.getIsLegendary())
+                legendaryTotal += pokemon.getTotal();
+        }
+        if (c.sum(PokemonColumns.Stat.TOTAL) != total
+                || c.sum(PokemonColumns.Stat.TOTAL, c.legendary()) != legendaryTotal)
+            System.out.println("Sum error!");
+
+        // adding a name that is already present overwrites its row
+        Pokemon update = new Pokemon(data[7]);
+        update.setName(update.getName().toLowerCase());
+        update.setHp(999);
+        if (c.add(update) != 7 || c.value(PokemonColumns.Stat.HP, 7) != 999 || c.size() != NUMS)
+            System.out.println("Overwrite error!");
+    }
+}
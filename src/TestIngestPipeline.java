@@ -0,0 +1,193 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class TestIngestPipeline {
+    private static final IngestPipeline.Codec<Integer> CODEC = new IngestPipeline.Codec<>() {
+        @Override
+        public void write(DataOutput out, Integer item) throws IOException {
+            out.writeInt(item);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    private static final IngestPipeline.Codec<String> STRING_CODEC = new IngestPipeline.Codec<>() {
+        @Override
+        public void write(DataOutput out, String item) throws IOException {
+            out.writeInt(item.length());
+            out.writeChars(item);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            char[] chars = new char[in.readInt()];
+            for (int i = 0; i < chars.length; i++)
+                chars[i] = in.readChar();
+            return new String(chars);
+        }
+    };
+
+    // Test program
+    public static void main( String [ ] args ) throws Exception {
+        final int NUMS = 10000;  // must be even
+        final int RECORD = 4 + 4 + 1 + 4;  // length, CRC, op, int
+        Path log = Files.createTempFile("ingest", ".log");
+
+        System.out.println("Checking... (no more output means success)");
+
+        // inserts 0..NUMS-1, removes the odd ones, and checks the tree once every future is done
+        AvlTree<Integer> t = new AvlTree<>();
+        IngestPipeline<Integer> pipeline = open(log, t);
+        List<CompletableFuture<Void>> done = new ArrayList<>();
+        for (int i = 0; i < NUMS; i++)
+            done.add(pipeline.insert(i));
+        for (int i = 1; i < NUMS; i += 2)
+            done.add(pipeline.remove(i));
+        for (CompletableFuture<Void> future : done)
+            future.join();
+        pipeline.close();
+        checkEvens(t, NUMS, "Commit error!");
+
+        // replays the log into a new tree
+        t = new AvlTree<>();
+        pipeline = open(log, t);
+        if (pipeline.replayedRecords() != NUMS + NUMS / 2 || pipeline.truncatedBytes() != 0)
+            System.out.println("Replay error! " + pipeline.replayedRecords() + " records, "
+                    + pipeline.truncatedBytes() + " bytes truncated");
+        pipeline.close();
+        checkEvens(t, NUMS, "Replay error!");
+
+        // a record cut short by a crash is truncated, and appending resumes after the last intact one
+        long intact = Files.size(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 9, 1, 2, 3, 4, 1, 0}));
+        }
+        t = new AvlTree<>();
+        pipeline = open(log, t);
+        if (pipeline.truncatedBytes() != 10 || pipeline.replayedRecords() != NUMS + NUMS / 2)
+            System.out.println("Torn tail error1! " + pipeline.truncatedBytes() + " bytes truncated");
+        pipeline.insert(-1).join();
+        pipeline.close();
+        if (Files.size(log) != intact + RECORD || !t.contains(-1))
+            System.out.println("Torn tail error2!");
+
+        // a record failing its checksum is treated as torn too
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x55}), intact + RECORD - 1);
+        }
+        t = new AvlTree<>();
+        pipeline = open(log, t);
+        if (pipeline.truncatedBytes() != RECORD || t.contains(-1))
+            System.out.println("Torn tail error3!");
+        pipeline.close();
+        checkEvens(t, NUMS, "Torn tail error4!");
+
+        // producers racing close: every future they got back must finish, and nothing is accepted after
+        Files.delete(log);
+        AvlTree<Integer> raced = new AvlTree<>();
+        IngestPipeline<Integer> racing = new IngestPipeline<>(log, CODEC, raced::insert, raced::remove, 16, 8);
+        List<List<CompletableFuture<Void>>> accepted = new ArrayList<>();
+        Thread[] producers = new Thread[4];
+        for (int p = 0; p < producers.length; p++) {
+            List<CompletableFuture<Void>> mine = new ArrayList<>();
+            accepted.add(mine);
+            final int producer = p;
+            producers[p] = new Thread(() -> {
+                try {
+                    for (int i = producer; ; i += producers.length)
+                        mine.add(racing.insert(i));
+                } catch (IllegalStateException e) {
+                    // closed
+                } catch (InterruptedException e) {
+                    System.out.println("Close race error1!");
+                }
+            });
+            producers[p].start();
+        }
+        Thread.sleep(200);
+        racing.close();
+        for (Thread producer : producers)
+            producer.join();
+        int committed = 0;
+        for (List<CompletableFuture<Void>> mine : accepted) {
+            for (CompletableFuture<Void> future : mine) {
+                try {
+                    future.get(10, TimeUnit.SECONDS);
+                    committed++;
+                } catch (TimeoutException e) {
+                    System.out.println("Close race error2! a future never finished");
+                    break;
+                } catch (ExecutionException e) {
+                    // failed by close; allowed, but it must not be in the log either
+                }
+            }
+        }
+        try {
+            racing.insert(-1);
+            System.out.println("Close race error3!");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        if (raced.size() != committed)
+            System.out.println("Close race error4! " + committed + " committed, tree holds " + raced.size());
+        t = new AvlTree<>();
+        open(log, t).close();
+        if (t.size() != committed)
+            System.out.println("Close race error5! " + committed + " committed, log holds " + t.size());
+
+        // a record too long for the log fails its own future, and the records around it are committed
+        Files.delete(log);
+        AvlTree<String> names = new AvlTree<>();
+        IngestPipeline<String> strings = new IngestPipeline<>(log, STRING_CODEC, names::insert, names::remove,
+                16, 8);
+        CompletableFuture<Void> before = strings.insert("before");
+        CompletableFuture<Void> huge = strings.insert("x".repeat(600000));  // 1.2 MB in UTF-16
+        CompletableFuture<Void> after = strings.insert("after");
+        try {
+            huge.join();
+            System.out.println("Oversize error1!");
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof IllegalArgumentException))
+                System.out.println("Oversize error2! " + e.getCause());
+        }
+        before.join();
+        after.join();
+        strings.close();
+        names = new AvlTree<>();
+        strings = new IngestPipeline<>(log, STRING_CODEC, names::insert, names::remove, 16, 8);
+        if (strings.replayedRecords() != 2 || strings.truncatedBytes() != 0 || !names.contains("after"))
+            System.out.println("Oversize error3! " + strings.replayedRecords() + " records replayed");
+        strings.close();
+
+        Files.delete(log);
+    }
+
+    private static IngestPipeline<Integer> open( Path log, AvlTree<Integer> t ) throws IOException {
+        return new IngestPipeline<>(log, CODEC, t::insert, t::remove, 1024, 64);
+    }
+
+    // checks that the tree holds exactly the even numbers below nums
+    private static void checkEvens( AvlTree<Integer> t, int nums, String error ) {
+        if (t.size() != nums / 2)
+            System.out.println(error + " size " + t.size());
+        for (int i = 0; i < nums; i++)
+            if (t.contains(i) != (i % 2 == 0))
+                System.out.println(error + " " + i);
+    }
+}
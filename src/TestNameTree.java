@@ -0,0 +1,83 @@
+import java.util.Random;
+import java.util.TreeMap;
+
+public class TestNameTree {
+    // Test program
+    public static void main( String [ ] args ) {
+        NameTree<Integer> t = new NameTree<>();
+        TreeMap<String, Integer> expected = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        final int NUMS = 200000;
+        Random random = new Random(7);
+
+        System.out.println("Checking... (no more output means success)");
+
+        // puts names of every length around the 8 byte prefix, in random case, some outside ASCII
+        String[] names = new String[NUMS];
+        for (int i = 0; i < NUMS; i++) {
+            names[i] = name(random);
+            t.put(names[i], i);
+            expected.put(names[i], i);
+        }
+        if (t.size() != expected.size())
+            System.out.println("Size error1!");
+
+        // checks every name, looked up in a different case than it was put
+        for (int i = 0; i < NUMS; i++) {
+            String name = (i % 2 == 0) ? names[i].toUpperCase() : names[i].toLowerCase();
+            if (!expected.get(name).equals(t.get(name)))
+                System.out.println("Get error1! " + name);
+        }
+
+        // checks names that share a prefix with stored names but are not stored
+        for (int i = 0; i < NUMS; i++) {
+            String[] probes = {names[i] + "x", names[i].substring(0, names[i].length() - 1), names[i] + "\u00e9"};
+            for (String probe : probes) {
+                if (expected.containsKey(probe) != t.containsName(probe))
+                    System.out.println("Get error2! " + probe);
+            }
+        }
+
+        // removes every other name and checks what is left
+        for (int i = 0; i < NUMS; i += 2) {
+            t.remove(names[i].toLowerCase());
+            expected.remove(names[i]);
+        }
+        if (t.size() != expected.size())
+            System.out.println("Size error2!");
+        for (int i = 0; i < NUMS; i++) {
+            Integer value = expected.get(names[i]);
+            if (value == null ? t.get(names[i]) != null : !value.equals(t.get(names[i])))
+                System.out.println("Remove error! " + names[i]);
+        }
+
+        // checks that the tree stayed balanced: an AVL Tree is at most 1.44 log2(n) high
+        if (t.height() > 1.45 * Math.log(t.size() + 2) / Math.log(2))
+            System.out.println("Balance error! height " + t.height());
+
+        // removes the rest
+        for (String name : names)
+            t.remove(name);
+        if (!t.isEmpty() || t.size() != 0)
+            System.out.println("Empty error!");
+    }
+
+    // A name of 1 to 16 characters, mostly letters, now and then a digit, space or accented letter
+    private static String name( Random random ) {
+        int length = 1 + random.nextInt(16);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            int roll = random.nextInt(40);
+            if (roll < 26)
+                name.append((char) ('a' + roll));
+            else if (roll < 36)
+                name.append((char) ('A' + random.nextInt(6)));
+            else if (roll < 38)
+                name.append((char) ('0' + random.nextInt(10)));
+            else if (roll < 39)
+                name.append(' ');
+            else
+                name.append(random.nextBoolean() ? '\u00e9' : '\u00c9');
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,157 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+
+public class TestQueryServer {
+    // Test program
+    public static void main( String [ ] args ) throws IOException {
+        final int NUMS = 2000;
+        Pokemon[] data = new PokemonGenerator(5, PokemonGenerator.Distribution.RANDOM, 8).generate(NUMS);
+        Pokemon[] sorted = data.clone();
+        Arrays.sort(sorted);
+
+        System.out.println("Checking... (no more output means success)");
+
+        AvlTree<Pokemon> t = new AvlTree<>();
+        for (Pokemon pokemon : data)
+            t.insert(pokemon);
+        QueryServer server = new QueryServer(t);
+        SocketAddress address = server.start(new InetSocketAddress("127.0.0.1", 0));
+
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+            ByteArrayOutputStream frame = new ByteArrayOutputStream();
+            DataOutputStream request = new DataOutputStream(frame);
+
+            // GET: a batch of hits, a miss and a name in another case
+            request.writeInt(1);
+            request.writeByte(QueryServer.GET);
+            request.writeShort(3);
+            request.writeUTF(data[0].getName());
+            request.writeUTF(data[1].getName() + "?");
+            request.writeUTF(data[2].getName().toUpperCase());
+            send(out, frame);
+            DataInputStream response = receive(in, 1, QueryServer.OK);
+            if (response.readUnsignedShort() != 3)
+                System.out.println("Get error1!");
+            if (!response.readBoolean() || !PokemonCodec.read(response).sameRecord(data[0]))
+                System.out.println("Get error2!");
+            if (response.readBoolean())
+                System.out.println("Get error3! found a missing name");
+            if (!response.readBoolean() || !PokemonCodec.read(response).sameRecord(data[2]))
+                System.out.println("Get error4!");
+
+            // RANGE: bounded on both sides, unbounded above with a limit, and empty
+            checkRange(in, out, sorted[10].getName(), sorted[60].getName(), 1000, sorted, 10, 51);
+            checkRange(in, out, sorted[NUMS - 30].getName(), "", 20, sorted, NUMS - 30, 20);
+            checkRange(in, out, sorted[60].getName(), sorted[10].getName(), 1000, sorted, 0, 0);
+
+            // INSERT: two new records and one already present; then the new ones can be found
+            Pokemon first = new Pokemon(data[3]);
+            first.setName("ServerTestA");
+            Pokemon second = new Pokemon(data[4]);
+            second.setName("ServerTestB");
+            frame.reset();
+            request.writeInt(7);
+            request.writeByte(QueryServer.INSERT);
+            request.writeShort(3);
+            PokemonCodec.write(request, first);
+            PokemonCodec.write(request, data[5]);
+            PokemonCodec.write(request, second);
+            send(out, frame);
+            if (receive(in, 7, QueryServer.OK).readInt() != 2)
+                System.out.println("Insert error1!");
+            if (t.size() != NUMS + 2 || !t.contains(first) || !t.contains(second))
+                System.out.println("Insert error2!");
+
+            // pipelined: many requests in one write, answered in order, with a malformed one in the middle
+            // that gets an ERROR while the connection keeps serving the rest
+            frame.reset();
+            ByteArrayOutputStream burst = new ByteArrayOutputStream();
+            DataOutputStream burstOut = new DataOutputStream(burst);
+            for (int id = 100; id < 150; id++) {
+                frame.reset();
+                request.writeInt(id);
+                if (id == 120) {
+                    request.writeByte(QueryServer.GET);
+                    request.writeShort(5);  // claims five names but carries one
+                    request.writeUTF(data[0].getName());
+                } else if (id == 130) {
+                    request.writeByte(42);  // no such op
+                } else {
+                    request.writeByte(QueryServer.GET);
+                    request.writeShort(1);
+                    request.writeUTF(data[id].getName());
+                }
+                burstOut.writeInt(frame.size());
+                frame.writeTo(burstOut);
+            }
+            burst.writeTo(out);
+            out.flush();
+            for (int id = 100; id < 150; id++) {
+                if (id == 120 || id == 130) {
+                    receive(in, id, QueryServer.ERROR).readUTF();
+                    continue;
+                }
+                response = receive(in, id, QueryServer.OK);
+                if (response.readUnsignedShort() != 1 || !response.readBoolean()
+                        || !PokemonCodec.read(response).sameRecord(data[id]))
+                    System.out.println("Pipeline error! request " + id);
+            }
+        }
+
+        // closing twice is harmless
+        server.close();
+        server.close();
+    }
+
+    // sends a RANGE request and checks it returns count records of sorted, starting at from
+    private static void checkRange( DataInputStream in, DataOutputStream out, String lo, String hi, int limit,
+                                    Pokemon[] sorted, int from, int count ) throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        DataOutputStream request = new DataOutputStream(frame);
+        request.writeInt(2);
+        request.writeByte(QueryServer.RANGE);
+        request.writeUTF(lo);
+        request.writeUTF(hi);
+        request.writeInt(limit);
+        send(out, frame);
+        DataInputStream response = receive(in, 2, QueryServer.OK);
+        int found = response.readInt();
+        if (found != count) {
+            System.out.println("Range error! [" + lo + ", " + hi + "] returned " + found);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            if (!PokemonCodec.read(response).sameRecord(sorted[from + i])) {
+                System.out.println("Range error! [" + lo + ", " + hi + "] at " + i);
+                return;
+            }
+        }
+    }
+
+    private static void send( DataOutputStream out, ByteArrayOutputStream frame ) throws IOException {
+        out.writeInt(frame.size());
+        frame.writeTo(out);
+        out.flush();
+    }
+
+    // reads one response frame, checks its id and status, and returns its body
+    private static DataInputStream receive( DataInputStream in, int id, byte status ) throws IOException {
+        byte[] frame = new byte[in.readInt()];
+        in.readFully(frame);
+        DataInputStream response = new DataInputStream(new ByteArrayInputStream(frame));
+        if (response.readInt() != id || response.readByte() != status)
+            System.out.println("Response error! expected request " + id + " with status " + status);
+        return response;
+    }
+}
@@ -0,0 +1,73 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class TestReload {
+    // Test program
+    public static void main( String [ ] args ) {
+        final int NUMS = 20000;
+        Pokemon[] data = new PokemonGenerator(4, PokemonGenerator.Distribution.RANDOM, 8).generate(NUMS);
+
+        System.out.println("Checking... (no more output means success)");
+
+        AvlTree<Pokemon> t = new AvlTree<>();
+        for (Pokemon pokemon : data)
+            t.insert(pokemon);
+
+        // new data, out of order: every third record dropped, every fifth changed, and some new names
+        List<Pokemon> fresh = new ArrayList<>();
+        int removed = 0;
+        int updated = 0;
+        for (int i = 0; i < NUMS; i++) {
+            if (i % 3 == 0) {
+                removed++;
+                continue;
+            }
+            Pokemon pokemon = new Pokemon(data[i]);
+            if (i % 5 == 0) {
+                pokemon.setHp(pokemon.getHp() + 1);
+                updated++;
+            }
+            fresh.add(pokemon);
+        }
+        for (int i = 0; i < 100; i++) {
+            Pokemon pokemon = new Pokemon(data[i]);
+            pokemon.setName(pokemon.getName() + "Neo");
+            fresh.add(pokemon);
+        }
+        Collections.reverse(fresh);
+
+        IncrementalReload.Result result = IncrementalReload.reload(t, fresh);
+        if (result.removed != removed || result.updated != updated || result.inserted != 100
+                || result.unchanged != fresh.size() - 100 - updated)
+            System.out.println("Reload error! " + result);
+
+        // the tree must now hold exactly the new records, field for field
+        List<Pokemon> expected = new ArrayList<>(fresh);
+        Collections.sort(expected);
+        if (t.size() != expected.size())
+            System.out.println("Size error! " + t.size());
+        int i = 0;
+        for (Pokemon pokemon : t) {
+            if (!pokemon.sameRecord(expected.get(i++))) {
+                System.out.println("Contents error! " + pokemon);
+                break;
+            }
+        }
+        t.checkBalance();
+
+        // reloading the same data again changes nothing
+        result = IncrementalReload.reload(t, expected);
+        if (result.inserted + result.removed + result.updated != 0)
+            System.out.println("Second reload error! " + result);
+
+        // a file that cannot be read is an error, not an empty dataset
+        try {
+            Proj2.readPokemonData("no-such-file.csv", new ArrayList<>(), Integer.MAX_VALUE);
+            System.out.println("Load error! a missing file read as empty");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestShardedAvlTree {
+    // Test program
+    public static void main( String [ ] args ) throws InterruptedException {
+        final int WRITERS = 4;
+        final int NUMS = 200000;  // per writer, must be even
+        final int REBALANCES = 20;
+
+        System.out.println("Checking... (no more output means success)");
+
+        // boundaries from a sample of the lowest keys only, so every rebalance really moves them
+        List<Integer> sample = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            sample.add(i * WRITERS);
+        ShardedAvlTree<Integer> t = new ShardedAvlTree<>(4, sample);
+
+        // each writer inserts its own keys, removes its odd ones and checks what it sees, while the
+        // main thread rebalances under it
+        AtomicBoolean failed = new AtomicBoolean();
+        Thread[] writers = new Thread[WRITERS];
+        for (int w = 0; w < WRITERS; w++) {
+            final int writer = w;
+            writers[w] = new Thread(() -> {
+                for (int i = 0; i < NUMS; i++)
+                    t.insert(i * WRITERS + writer);
+                for (int i = 1; i < NUMS; i += 2)
+                    t.remove(i * WRITERS + writer);
+                // a writer sees its own operations in the order it issued them
+                for (int i = 0; i < NUMS; i += 1000) {
+                    if (t.contains(i * WRITERS + writer) != (i % 2 == 0)) {
+                        System.out.println("Order error! writer " + writer + " key " + (i * WRITERS + writer));
+                        failed.set(true);
+                    }
+                }
+            });
+            writers[w].start();
+        }
+        for (int r = 0; r < REBALANCES; r++)
+            t.rebalance();
+        for (Thread writer : writers)
+            writer.join();
+        t.rebalance();
+
+        // checks that no operation was lost or applied twice across the rebalances
+        if (t.size() != WRITERS * NUMS / 2)
+            System.out.println("Size error! " + t.size());
+        int expected = 0;
+        for (int x : t) {
+            if (x != expected) {
+                System.out.println("Contents error! expected " + expected + " got " + x);
+                break;
+            }
+            expected++;
+            if ((expected / WRITERS) % 2 == 1)  // keys i * WRITERS + w with odd i were removed
+                expected += WRITERS;
+        }
+
+        // checks that the rebalances spread the keys out
+        int[] sizes = t.shardSizes();
+        for (int size : sizes) {
+            if (size > 2 * WRITERS * NUMS / 2 / sizes.length)
+                System.out.println("Skew error! shard holds " + size);
+        }
+
+        // checks that nothing is accepted after close
+        t.close();
+        try {
+            t.insert(-1);
+            System.out.println("Close error1!");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            t.contains(0);
+            System.out.println("Close error2!");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            t.size();
+            System.out.println("Close error3!");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        // an operation that throws on a worker fails its own future, or is reported, and the worker carries on
+        AtomicInteger reported = new AtomicInteger();
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> reported.incrementAndGet());
+        ShardedAvlTree<Key> k = new ShardedAvlTree<>(1, new ArrayList<>());
+        for (int i = 0; i < 100; i++)
+            k.insert(new Key(i));
+        try {
+            k.contains(new Key(-1));
+            System.out.println("Throw error1!");
+        } catch (CompletionException e) {
+            // expected
+        }
+        k.insert(new Key(-1));
+        k.insert(new Key(100));
+        if (!k.contains(new Key(100)) || k.size() != 101 || reported.get() != 1)
+            System.out.println("Throw error2!");
+        k.close();
+        Thread.setDefaultUncaughtExceptionHandler(null);
+    }
+
+    // a key that cannot be compared with any other once it is negative
+    private static class Key implements Comparable<Key> {
+        final int value;
+
+        Key( int value ) {
+            this.value = value;
+        }
+
+        public int compareTo( Key other ) {
+            if (value < 0 || other.value < 0)
+                throw new IllegalArgumentException("Negative key");
+            return Integer.compare(value, other.value);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestSortedBatches {
+    // Test program
+    public static void main( String [ ] args ) {
+        AvlTree<Integer> t = new AvlTree<>();
+        final int NUMS = 200000;  // must be even
+        Random random = new Random(11);
+
+        System.out.println("Checking... (no more output means success)");
+
+        // fills the tree with the even numbers below NUMS
+        for (int i = 0; i < NUMS; i += 2)
+            t.insert(i);
+
+        // sorted batches of every size, from a handful of keys to a sweep across the whole tree
+        for (int size : new int[] {1, 2, 7, 100, 5000, NUMS}) {
+            for (int round = 0; round < 20; round++) {
+                List<Integer> batch = new ArrayList<>();
+                int start = random.nextInt(NUMS);
+                int span = Math.max(size, random.nextInt(NUMS));
+                for (int j = 0; j < size; j++)
+                    batch.add(start + random.nextInt(span) - span / 2);
+                Collections.sort(batch);
+                check(t, batch, "ContainsSorted error1! size " + size);
+            }
+        }
+
+        // consecutive keys walk the finger one node at a time, through every subtree boundary
+        List<Integer> all = new ArrayList<>();
+        for (int i = -5; i < NUMS + 5; i++)
+            all.add(i);
+        check(t, all, "ContainsSorted error2!");
+
+        // runs of duplicates
+        List<Integer> duplicates = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            int k = random.nextInt(NUMS);
+            for (int j = random.nextInt(4); j >= 0; j--)
+                duplicates.add(k);
+        }
+        Collections.sort(duplicates);
+        check(t, duplicates, "ContainsSorted error3!");
+
+        // out-of-order batches: fully shuffled, and sorted runs that restart at random points
+        List<Integer> shuffled = new ArrayList<>(duplicates);
+        Collections.shuffle(shuffled, random);
+        check(t, shuffled, "ContainsSorted error4!");
+        List<Integer> runs = new ArrayList<>();
+        for (int run = 0; run < 200; run++) {
+            int k = random.nextInt(NUMS);
+            for (int j = random.nextInt(100); j >= 0; j--) {
+                runs.add(k);
+                k += random.nextInt(50);
+            }
+        }
+        check(t, runs, "ContainsSorted error5!");
+
+        // an empty tree and an empty batch
+        if (new AvlTree<Integer>().containsSorted(all).length != all.size()
+                || t.containsSorted(List.of()).length != 0)
+            System.out.println("ContainsSorted error6!");
+
+        // insertSorted, below a quarter of the tree (one insert per item) and above it (merge and rebuild),
+        // with duplicates in the batch and keys already in the tree, sorted and not
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < NUMS; i += 2)
+            expected.add(i);
+        for (int round = 0; round < 12; round++) {
+            if (round == 6)
+                t.enableLazyDeletion(0.4);  // merges must also drop tombstones and revive removed keys
+            int size = (round % 3 == 0) ? t.size() / 10 : (round % 3 == 1) ? t.size() / 2 : t.size();
+            List<Integer> batch = new ArrayList<>();
+            for (int j = 0; j < size; j++)
+                batch.add(random.nextInt(2 * NUMS));
+            if (round % 4 != 3)
+                Collections.sort(batch);
+            t.insertSorted(batch);
+            expected.addAll(batch);
+            // removes some, so later rounds see removed keys again
+            for (int j = 0; j < size / 4; j++) {
+                int k = random.nextInt(2 * NUMS);
+                t.remove(k);
+                expected.remove(k);
+            }
+            t.checkBalance();
+            if (t.size() != expected.size())
+                System.out.println("InsertSorted error1! round " + round + " size " + t.size());
+            int i = 0;
+            List<Integer> items = new ArrayList<>(expected);
+            for (int x : t) {
+                if (x != items.get(i++)) {
+                    System.out.println("InsertSorted error2! round " + round);
+                    break;
+                }
+            }
+            List<Integer> probes = new ArrayList<>();
+            for (int j = 0; j < 20000; j++)
+                probes.add(random.nextInt(2 * NUMS));
+            Collections.sort(probes);
+            boolean[] found = t.containsSorted(probes);
+            for (int j = 0; j < probes.size(); j++) {
+                if (found[j] != expected.contains(probes.get(j))) {
+                    System.out.println("InsertSorted error3! round " + round + " key " + probes.get(j));
+                    break;
+                }
+            }
+        }
+    }
+
+    // checks containsSorted against contains for every key in a batch
+    private static void check( AvlTree<Integer> t, List<Integer> batch, String error ) {
+        boolean[] found = t.containsSorted(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            if (found[i] != t.contains(batch.get(i))) {
+                System.out.println(error + " key " + batch.get(i) + " at " + i);
+                return;
+            }
+        }
+    }
+}
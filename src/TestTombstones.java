@@ -0,0 +1,125 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestTombstones {
+    // Test program
+    public static void main( String [ ] args ) {
+        AvlTree<Integer> t = new AvlTree<>();
+        final int NUMS = 100000;  // must be even
+        final int GAP = 37;
+        final double DEAD = 0.25;
+
+        System.out.println("Checking... (no more output means success)");
+
+        t.enableLazyDeletion(DEAD);
+
+        // inserts sequence of numbers "GAP" apart into AVL Tree
+        for (int i = GAP; i != 0; i = (i + GAP) % NUMS)
+            t.insert(i);
+
+        // removes odd numbers; compaction must keep the tombstones under the dead fraction
+        for (int i = 1; i < NUMS; i += 2) {
+            t.remove(i);
+            if (t.tombstoneCount() > DEAD * (t.size() + t.tombstoneCount()) + 1)
+                System.out.println("Compaction error! " + t.tombstoneCount() + " tombstones");
+        }
+        t.checkBalance();
+
+        // checks that removed numbers are gone from every query while tombstones remain
+        if (t.tombstoneCount() == 0)
+            System.out.println("Tombstone error! nothing was left to compact");
+        checkEvens(t, NUMS, "Lazy remove error!");
+
+        // removing the smallest and largest live numbers leaves tombstones at the ends for findMin/findMax
+        t.remove(2);
+        t.remove(NUMS - 2);
+        if (t.findMin() != 4 || t.findMax() != NUMS - 4)
+            System.out.println("FindMin or FindMax error!");
+
+        // reinserting a removed number revives its node
+        int before = t.tombstoneCount();
+        t.insert(2);
+        t.insert(NUMS - 2);
+        if (t.tombstoneCount() != before - 2)
+            System.out.println("Revive error!");
+
+        // compaction drops every tombstone and leaves a balanced tree with the same contents
+        t.compact();
+        if (t.tombstoneCount() != 0)
+            System.out.println("Compact error!");
+        t.checkBalance();
+        if (t.height() > 32 - Integer.numberOfLeadingZeros(t.size()))
+            System.out.println("Compact error! height " + t.height() + " for " + t.size() + " items");
+        checkEvens(t, NUMS, "Compact error!");
+
+        // random operations against a TreeSet, with lazy deletion switched on and off along the way
+        Random random = new Random(3);
+        TreeSet<Integer> expected = new TreeSet<>();
+        t.makeEmpty();
+        for (int op = 0; op < 200000; op++) {
+            if (op % 50000 == 25000)
+                t.disableLazyDeletion();
+            else if (op % 50000 == 0)
+                t.enableLazyDeletion(0.1 + random.nextDouble() * 0.5);
+            int k = random.nextInt(5000);
+            int roll = random.nextInt(10);
+            if (roll < 4) {
+                t.insert(k);
+                expected.add(k);
+            } else if (roll < 8) {
+                t.remove(k);
+                expected.remove(k);
+            } else if (roll == 8) {
+                if (t.contains(k) != expected.contains(k) || (t.find(k) != null) != expected.contains(k))
+                    System.out.println("Find error! " + k);
+            } else {
+                List<Integer> batch = new ArrayList<>();
+                for (int j = random.nextInt(50); j > 0; j--)
+                    batch.add(random.nextInt(5000));
+                Collections.sort(batch);
+                t.insertSorted(batch);
+                expected.addAll(batch);
+            }
+            if (t.size() != expected.size() || t.isEmpty() != expected.isEmpty())
+                System.out.println("Size error! at op " + op);
+            if (op % 1000 == 0) {
+                List<Integer> items = new ArrayList<>();
+                for (int x : t)
+                    items.add(x);
+                if (!items.equals(new ArrayList<>(expected)))
+                    System.out.println("Iterator error! at op " + op);
+                int lo = random.nextInt(5000);
+                List<Integer> range = new ArrayList<>(expected.subSet(lo, true, lo + 100, true));
+                if (!range.equals(t.range(lo, lo + 100, Integer.MAX_VALUE)))
+                    System.out.println("Range error! at op " + op);
+                t.checkBalance();
+            }
+        }
+    }
+
+    // checks that the tree holds exactly the even numbers between 2 and nums - 2
+    private static void checkEvens( AvlTree<Integer> t, int nums, String error ) {
+        if (t.size() != nums / 2 - 1)
+            System.out.println(error + " size " + t.size());
+        if (t.findMin() != 2 || t.findMax() != nums - 2)
+            System.out.println(error + " findMin or findMax");
+        for (int i = 1; i < nums; i++) {
+            if (t.contains(i) != (i % 2 == 0))
+                System.out.println(error + " contains " + i);
+        }
+        int expected = 2;
+        for (int x : t) {
+            if (x != expected) {
+                System.out.println(error + " iterator expected " + expected + " got " + x);
+                break;
+            }
+            expected += 2;
+        }
+        boolean[] found = t.containsSorted(List.of(0, 1, 2, 3, nums - 2, nums - 1));
+        if (found[0] || found[1] || !found[2] || found[3] || !found[4] || found[5])
+            System.out.println(error + " containsSorted");
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * @file: TombstoneBench.java
+ * @description: This program compares the AVL Tree's eager remove with lazy deletion (tombstones plus
+ *               threshold-triggered compaction). It runs TestAvl's workload, inserting n integers and removing
+ *               the odd ones, and then random mixes of insert/remove/contains with a growing share of removes,
+ *               reporting ns/op, compactions and the height the lookups see.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.util.SplittableRandom;
+
+public class TombstoneBench {
+    private static final double[] DEAD_FRACTIONS = {0.25, 0.5};
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        System.out.println("\nTestAvl workload, n=" + n + " (insert all, remove odd, check all; ms):");
+        System.out.println("-------------------------------------------------------------------");
+        System.out.printf("%-14s %10s %10s %10s %10s %8s%n", "mode", "insert", "remove", "contains", "total", "height");
+        runTestAvlWorkload("eager", n, 0);
+        for (double dead : DEAD_FRACTIONS) {
+            runTestAvlWorkload("lazy " + dead, n, dead);
+        }
+
+        System.out.println("\nRandom mixes over " + n / 2 + " keys, " + ops + " ops (ns/op):");
+        System.out.println("-------------------------------------------------------------------");
+        System.out.printf("%-10s %10s", "remove %", "eager");
+        for (double dead : DEAD_FRACTIONS) {
+            System.out.printf(" %10s %11s", "lazy " + dead, "compactions");
+        }
+        System.out.println();
+        for (int removePercent = 10; removePercent <= 70; removePercent += 20) {
+            System.out.printf("%-10d %10.1f", removePercent, runMix(n / 2, ops, removePercent, 0, null));
+            for (double dead : DEAD_FRACTIONS) {
+                int[] compactions = new int[1];
+                double nsPerOp = runMix(n / 2, ops, removePercent, dead, compactions);
+                System.out.printf(" %10.1f %11d", nsPerOp, compactions[0]);
+            }
+            System.out.println();
+        }
+        System.out.println("-------------------------------------------------------------------\n");
+    }
+
+    // The TestAvl sequence: GAP-spaced inserts of 1..n-1, remove the odd numbers, then look every number up
+    private static void runTestAvlWorkload(String mode, int n, double dead) {
+        final int gap = 37;
+        AvlTree<Integer> tree = new AvlTree<>();
+        if (dead > 0) {
+            tree.enableLazyDeletion(dead);
+        }
+        long start = System.nanoTime();
+        for (int i = gap; i != 0; i = (i + gap) % n) {
+            tree.insert(i);
+        }
+        long inserted = System.nanoTime();
+        for (int i = 1; i < n; i += 2) {
+            tree.remove(i);
+        }
+        long removed = System.nanoTime();
+        int found = 0;
+        for (int i = 1; i < n; i++) {
+            if (tree.contains(i)) {
+                found++;
+            }
+        }
+        long end = System.nanoTime();
+        if (found != n / 2 - 1 || tree.findMin() != 2 || tree.findMax() != n - 2) {
+            throw new IllegalStateException(mode + " left the tree inconsistent");
+        }
+        System.out.printf("%-14s %10.1f %10.1f %10.1f %10.1f %8d%n", mode, (inserted - start) / 1e6,
+                (removed - inserted) / 1e6, (end - removed) / 1e6, (end - start) / 1e6, tree.height());
+    }
+
+    // ops random operations over keys [0, keys): removePercent removes, the rest split between inserts and lookups
+    private static double runMix(int keys, int ops, int removePercent, double dead, int[] compactions) {
+        AvlTree<Integer> tree = new AvlTree<>();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < keys; i++) {
+            tree.insert(random.nextInt(keys));
+        }
+        if (dead > 0) {
+            tree.enableLazyDeletion(dead);
+        }
+        int insertPercent = (100 - removePercent) / 2;
+        int found = 0;
+        int lastTombstones = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            int roll = random.nextInt(100);
+            Integer key = random.nextInt(keys);
+            if (roll < removePercent) {
+                tree.remove(key);
+                if (compactions != null) {
+                    if (tree.tombstoneCount() < lastTombstones) {
+                        compactions[0]++;
+                    }
+                    lastTombstones = tree.tombstoneCount();
+                }
+            } else if (roll < removePercent + insertPercent) {
+                tree.insert(key);
+                lastTombstones = tree.tombstoneCount(); // Revivals shrink it too
+            } else if (tree.contains(key)) {
+                found++;
+            }
+        }
+        double nsPerOp = (double) (System.nanoTime() - start) / ops;
+        return found < 0 ? -1 : nsPerOp;
+    }
+}
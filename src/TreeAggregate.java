@@ -0,0 +1,79 @@
+/**
+ * @file: TreeAggregate.java
+ * @description: This class describes a statistic an AVL Tree can keep for every subtree, so that the
+ *               statistic over any key range is answered in O(log n) without visiting the items in it. A
+ *               statistic is a monoid over longs (an associative combine with an identity) applied to a value
+ *               taken from each item: sum, min, max and count of items matching a predicate are provided.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.util.function.LongBinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+public class TreeAggregate<T> {
+    private final long identity;
+    private final LongBinaryOperator combine;
+    private final ToLongFunction<? super T> value;
+
+    /**
+     * Construct an aggregate.
+     * @param identity the result over no items; combine(identity, v) must equal v.
+     * @param combine merges the results of two adjacent runs of items; must be associative.
+     * @param value the value an item contributes.
+     */
+    public TreeAggregate(long identity, LongBinaryOperator combine, ToLongFunction<? super T> value) {
+        this.identity = identity;
+        this.combine = combine;
+        this.value = value;
+    }
+
+    /**
+     * Sum a field.
+     * @param field the field.
+     * @return the aggregate; 0 over no items.
+     */
+    public static <T> TreeAggregate<T> sum(ToLongFunction<? super T> field) {
+        return new TreeAggregate<>(0, Long::sum, field);
+    }
+
+    /**
+     * Take the minimum of a field.
+     * @param field the field.
+     * @return the aggregate; Long.MAX_VALUE over no items.
+     */
+    public static <T> TreeAggregate<T> min(ToLongFunction<? super T> field) {
+        return new TreeAggregate<>(Long.MAX_VALUE, Math::min, field);
+    }
+
+    /**
+     * Take the maximum of a field.
+     * @param field the field.
+     * @return the aggregate; Long.MIN_VALUE over no items.
+     */
+    public static <T> TreeAggregate<T> max(ToLongFunction<? super T> field) {
+        return new TreeAggregate<>(Long.MIN_VALUE, Math::max, field);
+    }
+
+    /**
+     * Count the items that match a predicate.
+     * @param predicate the predicate.
+     * @return the aggregate; 0 over no items.
+     */
+    public static <T> TreeAggregate<T> count(Predicate<? super T> predicate) {
+        return new TreeAggregate<>(0, Long::sum, x -> predicate.test(x) ? 1 : 0);
+    }
+
+    public long identity() {
+        return identity;
+    }
+
+    public long combine(long left, long right) {
+        return combine.applyAsLong(left, right);
+    }
+
+    public long valueOf(T x) {
+        return value.applyAsLong(x);
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ * @file: TreeMetrics.java
+ * @description: This class collects opt-in hot-path counters for the BST and AVL Tree: compareTo calls,
+ *               single and double rotations, and a histogram of nodes visited per lookup. Counting is
+ *               switched on with -Dtree.metrics=true; when it is off the ENABLED guard is a compile-time
+ *               constant to the JIT and the instrumentation is removed entirely.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public class TreeMetrics {
+    /** True when -Dtree.metrics=true was given; every counter update is guarded by this flag. */
+    public static final boolean ENABLED = Boolean.getBoolean("tree.metrics");
+
+    /** Lookups that visit this many nodes or more share the last histogram bucket. */
+    public static final int MAX_TRACKED_DEPTH = 64;
+
+    private long comparisons;
+    private long singleRotations;
+    private long doubleRotations;
+    private long lookups;
+    private long visits;
+    private int pathLength;
+    private final long[] visitHistogram = new long[MAX_TRACKED_DEPTH];
+
+    // Count one compareTo call
+    void recordComparison() {
+        comparisons++;
+    }
+
+    // Count one single rotation (case 1 or 4)
+    void recordSingleRotation() {
+        singleRotations++;
+    }
+
+    // Count one double rotation (case 2 or 3)
+    void recordDoubleRotation() {
+        doubleRotations++;
+    }
+
+    // Count one node visited by the lookup in progress
+    void recordVisit() {
+        pathLength++;
+    }
+
+    // Finish the lookup in progress and file its path length in the histogram
+    void endLookup() {
+        visitHistogram[Math.min(pathLength, MAX_TRACKED_DEPTH - 1)]++;
+        lookups++;
+        visits += pathLength;
+        pathLength = 0;
+    }
+
+    /**
+     * Clear every counter.
+     */
+    public void reset() {
+        comparisons = 0;
+        singleRotations = 0;
+        doubleRotations = 0;
+        lookups = 0;
+        visits = 0;
+        pathLength = 0;
+        Arrays.fill(visitHistogram, 0);
+    }
+
+    /**
+     * Take a copy of the counters together with the shape of the tree they belong to.
+     * The tree is not thread-safe, so a snapshot taken while it is being mutated is only approximate.
+     * @param height the current height of the tree (-1 if empty).
+     * @param size the current number of elements in the tree.
+     * @return an immutable snapshot.
+     */
+    public Snapshot snapshot(int height, int size) {
+        return new Snapshot(comparisons, singleRotations, doubleRotations, lookups, visits,
+                visitHistogram.clone(), height, size);
+    }
+
+    /**
+     * Register a tree's metrics with the platform MBean server under Proj2:type=TreeMetrics,name=name.
+     * @param name the name the tree is published under.
+     * @param metrics the tree's counters, used for reset().
+     * @param snapshots supplies fresh snapshots of the tree.
+     */
+    static void register(String name, TreeMetrics metrics, Supplier<Snapshot> snapshots) {
+        try {
+            ObjectName objectName = new ObjectName("Proj2:type=TreeMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(metrics, snapshots), objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register tree metrics for " + name, e);
+        }
+    }
+
+    /**
+     * An immutable copy of a tree's counters and shape.
+     */
+    public static class Snapshot {
+        private final long comparisons;
+        private final long singleRotations;
+        private final long doubleRotations;
+        private final long lookups;
+        private final long visits;
+        private final long[] visitHistogram;
+        private final int height;
+        private final int size;
+
+        Snapshot(long comparisons, long singleRotations, long doubleRotations, long lookups, long visits,
+                 long[] visitHistogram, int height, int size) {
+            this.comparisons = comparisons;
+            this.singleRotations = singleRotations;
+            this.doubleRotations = doubleRotations;
+            this.lookups = lookups;
+            this.visits = visits;
+            this.visitHistogram = visitHistogram;
+            this.height = height;
+            this.size = size;
+        }
+
+        public long getComparisons() {
+            return comparisons;
+        }
+
+        public long getSingleRotations() {
+            return singleRotations;
+        }
+
+        public long getDoubleRotations() {
+            return doubleRotations;
+        }
+
+        public long getLookups() {
+            return lookups;
+        }
+
+        // Total nodes visited over all lookups
+        public long getVisits() {
+            return visits;
+        }
+
+        // visitHistogram[d] is the number of lookups that visited d nodes (the last bucket is open-ended)
+        public long[] getVisitHistogram() {
+            return visitHistogram.clone();
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        // Height of a complete binary tree holding the same number of elements
+        public int getOptimalHeight() {
+            return size == 0 ? -1 : 31 - Integer.numberOfLeadingZeros(size);
+        }
+
+        // Average number of nodes visited per lookup
+        public double getMeanVisits() {
+            return lookups == 0 ? 0.0 : (double) visits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return "comparisons=" + comparisons +
+                    ", singleRotations=" + singleRotations +
+                    ", doubleRotations=" + doubleRotations +
+                    ", lookups=" + lookups +
+                    ", meanVisits=" + String.format("%.2f", getMeanVisits()) +
+                    ", height=" + height +
+                    ", optimalHeight=" + getOptimalHeight() +
+                    ", size=" + size;
+        }
+    }
+
+    // JMX view of one tree; every read takes a fresh snapshot
+    private static class Bean implements TreeMetricsMXBean {
+        private final TreeMetrics metrics;
+        private final Supplier<Snapshot> snapshots;
+
+        Bean(TreeMetrics metrics, Supplier<Snapshot> snapshots) {
+            this.metrics = metrics;
+            this.snapshots = snapshots;
+        }
+
+        @Override
+        public long getComparisons() {
+            return snapshots.get().getComparisons();
+        }
+
+        @Override
+        public long getSingleRotations() {
+            return snapshots.get().getSingleRotations();
+        }
+
+        @Override
+        public long getDoubleRotations() {
+            return snapshots.get().getDoubleRotations();
+        }
+
+        @Override
+        public long getLookups() {
+            return snapshots.get().getLookups();
+        }
+
+        @Override
+        public long[] getVisitHistogram() {
+            return snapshots.get().getVisitHistogram();
+        }
+
+        @Override
+        public double getMeanVisits() {
+            return snapshots.get().getMeanVisits();
+        }
+
+        @Override
+        public int getHeight() {
+            return snapshots.get().getHeight();
+        }
+
+        @Override
+        public int getOptimalHeight() {
+            return snapshots.get().getOptimalHeight();
+        }
+
+        @Override
+        public int getSize() {
+            return snapshots.get().getSize();
+        }
+
+        @Override
+        public void reset() {
+            metrics.reset();
+        }
+    }
+}
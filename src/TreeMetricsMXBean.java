@@ -0,0 +1,29 @@
+/**
+ * @file: TreeMetricsMXBean.java
+ * @description: This interface is the JMX management view of a tree's TreeMetrics, so the counters can be
+ *               watched live from JConsole or VisualVM.
+ * @author: Project contributors
+ * @date: October 18, 2026
+ */
+
+public interface TreeMetricsMXBean {
+    long getComparisons();
+
+    long getSingleRotations();
+
+    long getDoubleRotations();
+
+    long getLookups();
+
+    long[] getVisitHistogram();
+
+    double getMeanVisits();
+
+    int getHeight();
+
+    int getOptimalHeight();
+
+    int getSize();
+
+    void reset();
+}